@@ -0,0 +1,60 @@
+package taquine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import taquine.SearchMetrics;
+import taquine.Solver;
+
+/**
+ * Macro benchmarks of the blind searches, only on the 3x3 puzzles: on the 4x4 ones
+ * they stop at their limit of states before finding anything
+ * The oracle, which only reads the 3x3 distance table (built in its directory on the first use), is their baseline
+ * The plain blind search is left out, it keeps every path without merging the boards already seen, and runs out of
+ * memory on the deeper 3x3 puzzles of the corpus. The external one writes its depths in its directory, the time
+ * measured depends on that disk
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BlindSolverBenchmark {
+    private static final int PUZZLES = 16;
+
+    @Param({"cachedBlind", "parallelBlind", "bidirectionalBlind", "externalBlind", "oracle"})
+    public String type;
+
+    private taquine.State[] puzzles;
+    private int next;
+
+    @Setup
+    public void setUp () {
+        puzzles = Corpus.randomWalks(3, PUZZLES, 200);
+    }
+
+    @Benchmark
+    public taquine.State solve (NodeCounter counter) {
+        taquine.State puzzle = puzzles[next];
+        next = (next + 1) % PUZZLES;
+
+        SearchMetrics metrics = new SearchMetrics();
+        taquine.State solution = Solver.solve(type, puzzle, puzzle.getGoalState(), metrics);
+        counter.nodes += metrics.getExpanded();
+
+        return solution;
+    }
+}
@@ -0,0 +1,56 @@
+package taquine.benchmarks;
+
+import java.util.Random;
+
+import taquine.Board;
+import taquine.State;
+
+/**
+ * Fixed sets of puzzles for the benchmarks, every run solves the same instances
+ */
+
+final class Corpus {
+    private static final long SEED = 0x7A9013EL;
+
+    private Corpus () {
+    }
+
+    /**
+     * The puzzles are random walks from the goal, so they are all solvable, and their
+     * length bounds the cost of the solution
+     *
+     * @param n        The size of the puzzle side
+     * @param count    The number of puzzles
+     * @param steps    The number of random moves from the goal
+     * @return The puzzles, with the perfect grid as goal state
+     */
+    static State[] randomWalks (int n, int count, int steps) {
+        Random random = new Random(SEED + n);
+        State goal = State.getPerfectGrid(n);
+        State[] puzzles = new State[count];
+
+        for (int i = 0; i < count; i++) {
+            State state = goal;
+            int previous = -1;
+
+            for (int step = 0; step < steps; step++) {
+                int move = random.nextInt(4);
+                State next;
+
+                // We don't undo the previous move, so the walk goes somewhere
+                if (previous != -1 && move == Board.inverse(previous) || (next = state.move(move)) == null){
+                    step--;
+                    continue;
+                }
+
+                state = next;
+                previous = move;
+            }
+
+            int[][] tiles = state.getState();
+            puzzles[i] = new State(tiles, n, 0, null, goal);
+        }
+
+        return puzzles;
+    }
+}
@@ -0,0 +1,23 @@
+package taquine.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary result of the solver benchmarks, JMH reports the expanded nodes as a rate
+ * in the throughput mode, so the nodes per second show next to the solves per second
+ */
+
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class NodeCounter {
+    public long nodes;
+
+    @Setup(Level.Iteration)
+    public void reset () {
+        nodes = 0;
+    }
+}
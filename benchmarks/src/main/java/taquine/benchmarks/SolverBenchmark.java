@@ -0,0 +1,66 @@
+package taquine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import taquine.SearchMetrics;
+import taquine.Solver;
+
+/**
+ * Macro benchmarks of the informed searches, one invocation solves one puzzle of the corpus
+ * The anytime searches keep the limits of Solver, 10 seconds and 5M states by default (see -Dtaquine.budget and
+ * -Dtaquine.maxStates), the puzzles of the corpus prove their path the shortest well within them
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    private static final int PUZZLES = 16;
+
+    @Param({"3", "4"})
+    public int size;
+
+    // The pdb heuristic is left out, it needs the tables built by generate-pdb
+    @Param({"greedy-manhattan", "greedy-misplaced", "greedy-linear-conflict",
+            "astar-manhattan", "astar-misplaced", "astar-linear-conflict", "astar-walking-distance",
+            "ida-manhattan", "ida-linear-conflict", "ida-walking-distance", "parallelIda-linear-conflict",
+            "sma-linear-conflict", "anytime-manhattan", "anytime-linear-conflict"})
+    public String type;
+
+    private taquine.State[] puzzles;
+    private int next;
+
+    @Setup
+    public void setUp () {
+        // The 3x3 walks are long enough to be shuffled, the 4x4 ones are kept short
+        // so that the weaker heuristics still solve them in a reasonable time
+        puzzles = size == 3 ? Corpus.randomWalks(3, PUZZLES, 200) : Corpus.randomWalks(4, PUZZLES, 30);
+    }
+
+    @Benchmark
+    public taquine.State solve (NodeCounter counter) {
+        taquine.State puzzle = puzzles[next];
+        next = (next + 1) % PUZZLES;
+
+        SearchMetrics metrics = new SearchMetrics();
+        taquine.State solution = Solver.solve(type, puzzle, puzzle.getGoalState(), metrics);
+        counter.nodes += metrics.getExpanded();
+
+        return solution;
+    }
+}
@@ -0,0 +1,106 @@
+package taquine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import taquine.Board;
+import taquine.Heuristic;
+
+/**
+ * Micro benchmarks of the operations every search repeats on each state
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateBenchmark {
+    private static final int PUZZLES = 64;
+
+    @Param({"3", "4"})
+    public int size;
+
+    // The pdb heuristic is left out, it needs the tables built by generate-pdb
+    @Param({"manhattan", "misplaced", "linear-conflict", "walking-distance"})
+    public String heuristic;
+
+    private taquine.State[] puzzles;
+    private taquine.State[] copies;
+    private Board[] boards;
+    private Heuristic evaluated;
+    private int next;
+
+    @Setup
+    public void setUp () {
+        puzzles = Corpus.randomWalks(size, PUZZLES, 40);
+        copies = Corpus.randomWalks(size, PUZZLES, 40);
+        evaluated = Heuristic.fromName(heuristic);
+
+        boards = new Board[PUZZLES];
+        for (int i = 0; i < PUZZLES; i++) {
+            boards[i] = new Board(puzzles[i], puzzles[i].getGoalState(), evaluated);
+        }
+    }
+
+    private int nextIndex () {
+        next = (next + 1) % PUZZLES;
+        return next;
+    }
+
+    @Benchmark
+    public ArrayList<taquine.State> successors () {
+        return puzzles[nextIndex()].successors();
+    }
+
+    @Benchmark
+    public int hashCodeOf () {
+        return puzzles[nextIndex()].hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsTo () {
+        int i = nextIndex();
+        return puzzles[i].equals(copies[i]);
+    }
+
+    /**
+     * Evaluates the heuristic on the successors, the lazy ones are computed from their parent
+     */
+    @Benchmark
+    public void evaluateState (Blackhole blackhole) {
+        for (taquine.State successor : puzzles[nextIndex()].successors()) {
+            blackhole.consume(evaluated.evaluate(successor));
+        }
+    }
+
+    /**
+     * Evaluates the heuristic on the mutable board of IDA*, with a move and its undo
+     */
+    @Benchmark
+    public void evaluateBoard (Blackhole blackhole) {
+        Board board = boards[nextIndex()];
+
+        for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+            if (board.canMove(move)) {
+                board.move(move);
+                blackhole.consume(evaluated.evaluate(board));
+                board.move(Board.inverse(move));
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package taquine;
+
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Class implementing an anytime weighted A* search, for the boards too big for the searches giving the shortest path
+ *
+ * A first weighted A* search, ordered by f = cost + w.heuristic, quickly finds a path at most w times longer than the
+ * shortest one with an admissible heuristic. The search then restarts with lower weights, pruning the states that
+ * can't beat the best path found, and reports each better path, until w reaches 1, which proves the last path is the
+ * shortest, or until the budget of time or states runs out. The weights are in tenths so the priorities stay integers.
+ * The boards of any size are kept in a HashMap, the VisitedTable only holds the packed ones.
+ */
+
+public class AnytimeAStar {
+    private static final int[] WEIGHTS = {50, 30, 20, 15, 12, 10};
+    private static final int CLOCK_CHECK = 1 << 10;
+
+    private final State initialState;
+    private final State goalState;
+    private final Heuristic heuristic;
+    private final SearchMetrics metrics;
+    // The moves of the state expanded, the same array for every state
+    private final int[] moves = new int[4];
+    // A copy of the state expanded, moved in place to look at each successor before creating it
+    private final State cursor;
+    private State best;
+    private int weight;
+    private boolean optimal;
+    private boolean outOfBudget;
+    private long deadline;
+    private long maxStates;
+    private long count;
+
+    /**
+     * Main constructor for AnytimeAStar
+     *
+     * @param initialState    The initial state of our puzzle, it must be solvable
+     * @param goalState       The goal state of our puzzle
+     * @param heuristic       The heuristic we use, the bounds only hold if it never overestimates
+     * @param metrics         The metrics of the search, each weight is an iteration
+     */
+    public AnytimeAStar (State initialState, State goalState, Heuristic heuristic, SearchMetrics metrics) {
+        this.initialState = initialState;
+        this.goalState = goalState;
+        this.heuristic = heuristic;
+        this.metrics = metrics;
+        this.cursor = State.getPerfectGrid(initialState.getN());
+    }
+
+    /**
+     *
+     * @param budgetNanos    The time after which we stop improving the path
+     * @param maxStates      The number of boards a search may keep before we stop
+     * @param listener       What we call with each better path, or null
+     * @return The shortest path found, or null if the budget ran out before the first one
+     * @throws SearchBudget.Stop if the budget of the metrics ran out, or the search was cancelled, before the first path
+     */
+    public State solve (long budgetNanos, long maxStates, Consumer<State> listener) {
+        this.deadline = System.nanoTime() + budgetNanos;
+        this.maxStates = maxStates;
+
+        for (int w : WEIGHTS) {
+            metrics.startIteration(w);
+            State found = null;
+            try {
+                found = search(w);
+            } catch (SearchBudget.Stop e) {
+                // The budget of the metrics ends the search like its own one, once there is a path to give
+                if (best == null)
+                    throw e;
+                outOfBudget = true;
+            }
+            if (outOfBudget)
+                break;
+
+            weight = w;
+            // A search running to its end without a shorter path proves the best one is the shortest
+            if (found == null) {
+                optimal = true;
+                break;
+            }
+
+            best = found;
+            if (listener != null)
+                listener.accept(found);
+        }
+
+        if (weight == WEIGHTS[WEIGHTS.length - 1])
+            optimal = true;
+        return best;
+    }
+
+    /**
+     * Weighted A* search, the states that can't lead to a path shorter than the best one are pruned
+     *
+     * @param w    The weight of the heuristic, in tenths
+     * @return A path shorter than the best one, or null if there is none or if the budget ran out
+     */
+    private State search (int w) {
+        BucketQueue<State> open = new BucketQueue<>();
+        // The cheapest cost reaching each board so far
+        HashMap<State, Integer> costs = new HashMap<>();
+
+        open.put(initialState, w * metrics.evaluate(heuristic, initialState));
+        costs.put(initialState, 0);
+
+        while (!open.isEmpty()) {
+            State currentState = open.poll();
+            metrics.addExpanded();
+            metrics.updateOpen(open.size());
+
+            if (++count % CLOCK_CHECK == 0 && System.nanoTime() > deadline) {
+                outOfBudget = true;
+                return null;
+            }
+
+            if (currentState.equals(goalState))
+                return currentState;
+
+            // The successors are only created once they are kept, the others are looked at on the cursor
+            cursor.copyFrom(currentState);
+            int moveCount = currentState.moves(moves);
+            for (int i = 0; i < moveCount; i++) {
+                int previous = cursor.apply(moves[i]);
+                metrics.addGenerated();
+                int estimate = metrics.evaluate(heuristic, cursor);
+                int cost = cursor.getCost();
+
+                // Even the shortest path through it would not beat the best one
+                if (best != null && cost + estimate >= best.getCost()) {
+                    cursor.undo(moves[i], previous);
+                    continue;
+                }
+
+                Integer known = costs.get(cursor);
+                if (known != null && known <= cost) {
+                    metrics.addDuplicate();
+                    cursor.undo(moves[i], previous);
+                    continue;
+                }
+
+                // The successor kept takes the heuristic already computed on the cursor
+                State successor = cursor.child(currentState);
+                cursor.undo(moves[i], previous);
+                costs.put(successor, cost);
+                open.put(successor, 10 * cost + w * estimate);
+            }
+
+            metrics.updateClosed(costs.size());
+            if (costs.size() > maxStates) {
+                outOfBudget = true;
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @return True if the best path is the shortest, found with a weight of 1 or not beaten by a search run to its end
+     */
+    public boolean isOptimal () {
+        return optimal;
+    }
+}
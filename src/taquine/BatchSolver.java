@@ -0,0 +1,135 @@
+package taquine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class solving many puzzles in one process, on a pool of threads
+ *
+ * Each line of the input is an instance: the initial state, like in the args of Solver, optionally followed by a
+ * space and the goal state, GOAL when omitted. Empty lines and lines starting with # are skipped.
+ * Each instance gives one line, in the order they finish:
+ * the number of the instance line, OK, BEST if the budget ran out before the path was proven the shortest,
+ * UNSOLVABLE, UNSOLVED if the search gave up, CANCELLED (or ERROR and the message), the moves of the empty case
+ * (see Board.MOVE_NAMES), the cost of the path, the number of states expanded and the time in seconds,
+ * separated by tabs.
+ */
+
+public class BatchSolver {
+    private final SearchEngine engine;
+    private final int size;
+    private final int threads;
+
+    /**
+     * Main constructor for BatchSolver
+     *
+     * @param type       The type of search, like in the args of Solver
+     * @param size       The size of the puzzles
+     * @param threads    The number of puzzles solved at the same time
+     */
+    public BatchSolver (String type, int size, int threads) {
+        this.engine = new SearchEngine(type);
+        this.size = size;
+        this.threads = threads;
+    }
+
+    /**
+     *
+     * @param input     The instances, one per line
+     * @param output    Where we write the result of each instance, it is flushed at the end
+     * @return The number of instances read, each one gets a line whatever its result
+     */
+    public int run (BufferedReader input, Writer output) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // We don't read the instances much faster than they are solved, a huge input stays on the disk
+        Semaphore slots = new Semaphore(threads * 4);
+        int instances = 0;
+
+        try {
+            String line;
+            int number = 0;
+            while ((line = input.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                String instance = line;
+                int lineNumber = number;
+                slots.acquire();
+                pool.execute(() -> {
+                    try {
+                        String result = lineNumber + "\t" + solve(engine, size, instance, new SearchBudget()) + "\n";
+                        synchronized (output) {
+                            output.write(result);
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    } finally {
+                        slots.release();
+                    }
+                });
+                instances++;
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            output.flush();
+        }
+
+        return instances;
+    }
+
+    /**
+     * The result line of an instance is shared with the requests of SolverServer
+     *
+     * @param engine      The engine of the type of search
+     * @param size        The size of the puzzle
+     * @param instance    The initial state and optionally the goal state, separated by a space
+     * @param budget      The limits of the search of that instance
+     * @return The result line of that instance, without its number, ERROR and the message if it failed
+     */
+    static String solve (SearchEngine engine, int size, String instance, SearchBudget budget) {
+        try {
+            String[] parts = instance.split("\\s+");
+            State initialState = parts[0].equals("RANDOM") ? State.getRandomGrid(size) : new State(parts[0], size, 0, null);
+            State goalState = parts.length < 2 || parts[1].equals("GOAL") ? State.getPerfectGrid(size) : new State(parts[1], size, 0, null);
+            initialState.setGoalState(goalState);
+
+            SearchResult result = engine.solve(initialState, goalState, budget);
+            SearchMetrics metrics = result.getMetrics();
+
+            switch (result.getStatus()) {
+                case SOLVED:
+                case BUDGET_LIMITED:
+                    State finishedState = result.getState();
+                    return (result.getStatus() == SearchResult.Status.SOLVED ? "OK\t" : "BEST\t") + moves(finishedState) + "\t" + finishedState.getCost() + "\t" + metrics.getExpanded() + "\t" + metrics.getSeconds();
+                case BUDGET_EXHAUSTED:
+                    return "UNSOLVED\t-\t-\t" + metrics.getExpanded() + "\t" + metrics.getSeconds();
+                default:
+                    return result.getStatus() + "\t-\t-\t" + metrics.getExpanded() + "\t" + metrics.getSeconds();
+            }
+        } catch (RuntimeException e) {
+            // A bad instance, or a search that failed on it, only loses its own line, not the rest of the batch
+            return "ERROR\t" + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     *
+     * @param finishedState    The last state of a path
+     * @return The moves of the empty case from the first state of the path, see Board.MOVE_NAMES, - if there is none
+     */
+    private static String moves (State finishedState) {
+        StringBuilder moves = new StringBuilder();
+        for (State state = finishedState; state.getParentState() != null; state = state.getParentState()) {
+            moves.append(Board.MOVE_NAMES.charAt(state.getLastMove()));
+        }
+        return moves.length() == 0 ? "-" : moves.reverse().toString();
+    }
+}
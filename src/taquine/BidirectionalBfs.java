@@ -0,0 +1,141 @@
+package taquine;
+
+import java.util.Arrays;
+
+/**
+ * Class implementing a breadth-first search growing from the initial state and from the goal state at once
+ *
+ * The moves are reversible, so the goal side is a plain breadth-first search too. We always expand a whole depth
+ * of the smaller side, and the first depth meeting the other side gives the shortest path: the best meeting board
+ * of that depth. Each side covers about half the depth, roughly 2.b^(d/2) boards instead of b^d.
+ */
+
+public class BidirectionalBfs {
+    private final int n;
+    private final long maxStates;
+    private final VisitedTable forward;
+    private final VisitedTable backward;
+    private final SearchMetrics metrics;
+
+    /**
+     * Main constructor for BidirectionalBfs
+     *
+     * @param n            The size of the puzzle side, at most MAX_PACKED_SIZE
+     * @param maxStates    The number of visited boards after which we give up
+     * @param metrics      The metrics of the search, each depth of a side is an iteration
+     */
+    public BidirectionalBfs (int n, long maxStates, SearchMetrics metrics) {
+        this.n = n;
+        this.maxStates = maxStates;
+        this.forward = new VisitedTable(1 << 16, true);
+        this.backward = new VisitedTable(1 << 16, true);
+        this.metrics = metrics;
+    }
+
+    /**
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState       The goal state of our puzzle
+     * @return The moves of the empty case of the shortest path, see Board.MOVE_NAMES,
+     *         or null if there is no solution or if we visited more than maxStates boards
+     */
+    public byte[] solve (State initialState, State goalState) {
+        long start = initialState.getBoard();
+        long goal = goalState.getBoard();
+
+        forward.put(start, 0, -1);
+        backward.put(goal, 0, -1);
+        if (start == goal)
+            return new byte[0];
+
+        long[] forwardLayer = {start};
+        long[] backwardLayer = {goal};
+
+        while (forwardLayer.length > 0 && backwardLayer.length > 0) {
+            if (forward.size() + backward.size() > maxStates)
+                return null;
+
+            // We expand the smallest side, it keeps both sides about the same size
+            boolean fromStart = forwardLayer.length <= backwardLayer.length;
+            long[] layer = fromStart ? forwardLayer : backwardLayer;
+            VisitedTable own = fromStart ? forward : backward;
+            VisitedTable other = fromStart ? backward : forward;
+
+            // The iteration is the total depth covered by both sides
+            metrics.startIteration(metrics.getIterations());
+            metrics.updateOpen(forwardLayer.length + backwardLayer.length);
+
+            long meeting = 0;
+            int best = Integer.MAX_VALUE;
+            long[] next = new long[16];
+            int size = 0;
+
+            for (long board : layer) {
+                metrics.addExpanded();
+                int cost = own.getCost(board) + 1;
+                int empty = PackedBoard.indexOfEmpty(board, n);
+
+                for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+                    int target = PackedBoard.target(empty, n, move);
+                    if (target < 0)
+                        continue;
+                    long child = PackedBoard.move(board, empty, target);
+                    metrics.addGenerated();
+                    if (!own.put(child, cost, move)) {
+                        metrics.addDuplicate();
+                        continue;
+                    }
+
+                    int otherCost = other.getCost(child);
+                    if (otherCost >= 0 && cost + otherCost < best) {
+                        best = cost + otherCost;
+                        meeting = child;
+                    }
+
+                    if (size == next.length)
+                        next = Arrays.copyOf(next, size * 2);
+                    next[size++] = child;
+                }
+            }
+
+            metrics.updateClosed(forward.size() + backward.size());
+            if (best != Integer.MAX_VALUE)
+                return path(meeting);
+
+            if (fromStart)
+                forwardLayer = Arrays.copyOf(next, size);
+            else
+                backwardLayer = Arrays.copyOf(next, size);
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param meeting    A board reached by both sides
+     * @return The moves from the initial board to the meeting one, then from the meeting one to the goal
+     */
+    private byte[] path (long meeting) {
+        int forwardCost = forward.getCost(meeting);
+        byte[] moves = new byte[forwardCost + backward.getCost(meeting)];
+
+        // The initial side is walked back from the meeting board
+        long board = meeting;
+        for (int i = forwardCost - 1; i >= 0; i--) {
+            int move = forward.getMove(board);
+            moves[i] = (byte) move;
+            board = PackedBoard.undo(board, n, move);
+        }
+
+        // The goal side generated its boards from the goal, so going to the goal undoes its moves
+        board = meeting;
+        for (int i = forwardCost; i < moves.length; i++) {
+            int move = backward.getMove(board);
+            moves[i] = (byte) Board.inverse(move);
+            board = PackedBoard.undo(board, n, move);
+        }
+
+        return moves;
+    }
+}
@@ -0,0 +1,244 @@
+package taquine;
+
+/**
+ * Class representing a mutable board, used by the depth-first searches
+ * A single instance is moved back and forth instead of creating a State for each node
+ */
+
+public class Board implements Grid {
+    public static final int LEFT = 0;
+    public static final int UP = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 3;
+    /** The letter of each move of the empty case, indexed by the move */
+    public static final String MOVE_NAMES = "LURD";
+
+    private final int n;
+    private final byte[] tiles;
+    private final int[] where;
+    private final int[] goalRows;
+    private final int[] goalColumns;
+    private final int[] goalTiles;
+    private int indexOfEmpty;
+    private int manhattanDistance;
+    private int misplacedElements;
+    private PatternDatabase patternDatabase;
+    private final boolean trackLinearConflicts;
+    private final boolean trackWalkingDistance;
+    private final int[] buffer;
+    private int linearConflicts;
+    private long rowCode;
+    private long columnCode;
+    private WalkingDistance rowDistances;
+    private WalkingDistance columnDistances;
+
+    /**
+     * Constructor from a state and the goal we want to reach
+     *
+     * @param state        The state we copy the board from
+     * @param goalState    The goalState of this puzzle
+     * @param heuristic    The heuristic the search will use, the moves only update the values it needs
+     */
+    public Board (State state, State goalState, Heuristic heuristic) {
+        this.n = state.getN();
+        this.tiles = new byte[n * n];
+        this.where = new int[n * n];
+        this.goalRows = new int[n * n];
+        this.goalColumns = new int[n * n];
+        this.goalTiles = new int[n * n];
+
+        for (int k = 0; k < n * n; k++) {
+            tiles[k] = (byte) state.getTile(k);
+            where[state.getTile(k)] = k;
+            goalRows[goalState.getTile(k)] = k / n;
+            goalColumns[goalState.getTile(k)] = k % n;
+            goalTiles[k] = goalState.getTile(k);
+        }
+        this.indexOfEmpty = state.getIndexOfEmpty();
+
+        for (int k = 0; k < n * n; k++) {
+            int tile = getTile(k);
+            if (tile == 0)
+                continue;
+            int distance = distanceToGoal(tile, k);
+            manhattanDistance += distance;
+            if (distance != 0)
+                misplacedElements++;
+        }
+
+        this.trackLinearConflicts = heuristic == Heuristic.LINEAR_CONFLICT;
+        this.trackWalkingDistance = heuristic == Heuristic.WALKING_DISTANCE;
+        this.buffer = new int[2 * n];
+        if (trackLinearConflicts)
+            linearConflicts = LinearConflict.conflicts(this, goalRows, goalColumns, buffer);
+        if (trackWalkingDistance) {
+            rowDistances = WalkingDistance.forGoal(n, goalRows[0]);
+            columnDistances = WalkingDistance.forGoal(n, goalColumns[0]);
+            rowCode = WalkingDistance.rowCode(this, goalRows);
+            columnCode = WalkingDistance.columnCode(this, goalColumns);
+        }
+    }
+
+    /**
+     *
+     * @param move    A move of the empty case
+     * @return The move that cancels it
+     */
+    public static int inverse (int move) {
+        return move ^ 2;
+    }
+
+    /**
+     *
+     * @param move    A move of the empty case, LEFT, UP, RIGHT or DOWN
+     * @return True if the empty case can do that move, false if it would leave the board
+     */
+    public boolean canMove (int move) {
+        switch (move) {
+            case LEFT:
+                return indexOfEmpty % n != 0;
+            case UP:
+                return indexOfEmpty >= n;
+            case RIGHT:
+                return indexOfEmpty % n != n - 1;
+            default:
+                return indexOfEmpty < n * (n - 1);
+        }
+    }
+
+    /**
+     * Moves the empty case, the heuristics are updated from the tile that moved only
+     * The move must be legal, see canMove, and is undone by moving with its inverse
+     *
+     * @param move    A move of the empty case, LEFT, UP, RIGHT or DOWN
+     */
+    public void move (int move) {
+        int newIndex = indexOfEmpty + offset(move);
+        int tile = getTile(newIndex);
+
+        int before = distanceToGoal(tile, newIndex);
+        int after = distanceToGoal(tile, indexOfEmpty);
+        manhattanDistance += after - before;
+        misplacedElements += (after != 0 ? 1 : 0) - (before != 0 ? 1 : 0);
+
+        if (trackLinearConflicts)
+            linearConflicts -= LinearConflict.moveConflicts(this, newIndex, indexOfEmpty, goalRows, goalColumns, buffer);
+        if (trackWalkingDistance) {
+            rowCode += WalkingDistance.shift(n, indexOfEmpty / n, goalRows[tile]) - WalkingDistance.shift(n, newIndex / n, goalRows[tile]);
+            columnCode += WalkingDistance.shift(n, indexOfEmpty % n, goalColumns[tile]) - WalkingDistance.shift(n, newIndex % n, goalColumns[tile]);
+        }
+
+        tiles[indexOfEmpty] = (byte) tile;
+        tiles[newIndex] = 0;
+        where[tile] = indexOfEmpty;
+        where[0] = newIndex;
+
+        if (trackLinearConflicts)
+            linearConflicts += LinearConflict.moveConflicts(this, newIndex, indexOfEmpty, goalRows, goalColumns, buffer);
+
+        indexOfEmpty = newIndex;
+    }
+
+    /**
+     *
+     * @param move    A move of the empty case
+     * @return The difference of index of the empty case after that move
+     */
+    private int offset (int move) {
+        switch (move) {
+            case LEFT:
+                return -1;
+            case UP:
+                return -n;
+            case RIGHT:
+                return 1;
+            default:
+                return n;
+        }
+    }
+
+    /**
+     *
+     * @param tile     The tile we're looking
+     * @param index    The index where the tile stands
+     * @return The manhattan distance between that index and the position of the tile in the goal
+     */
+    private int distanceToGoal (int tile, int index) {
+        return Math.abs(index / n - goalRows[tile]) + Math.abs(index % n - goalColumns[tile]);
+    }
+
+    /**
+     *
+     * @param index    The index of the case, top left to bottom right
+     * @return The value of the case at that index, 0 for the empty case
+     */
+    public int getTile (int index) {
+        return tiles[index] & 0xFF;
+    }
+
+    /**
+     *
+     * @return The size of the side of the puzzle, n
+     */
+    public int getN () {
+        return n;
+    }
+
+    /**
+     *
+     * @return The index of the empty case, top left to bottom right
+     */
+    public int getIndexOfEmpty () {
+        return indexOfEmpty;
+    }
+
+    /**
+     *
+     * @return The additive pattern database distance to the goal, see PatternDatabase
+     */
+    public int getPatternDatabaseDistance () {
+        if (patternDatabase == null)
+            patternDatabase = PatternDatabase.forSize(n);
+        return patternDatabase.distance(where, goalTiles);
+    }
+
+    /**
+     *
+     * @return The manhattan distance plus 2 moves for each tile that must leave its goal line, see LinearConflict
+     */
+    public int getLinearConflictDistance () {
+        return manhattanDistance + 2 * linearConflicts;
+    }
+
+    /**
+     *
+     * @return The walking distance to the goal, see WalkingDistance
+     */
+    public int getWalkingDistance () {
+        return rowDistances.distance(rowCode) + columnDistances.distance(columnCode);
+    }
+
+    /**
+     *
+     * @return True if every tile is at its goal position
+     */
+    public boolean isGoal () {
+        return manhattanDistance == 0;
+    }
+
+    /**
+     *
+     * @return The manhattan distance to the goal, the empty case is not counted
+     */
+    public int getManhattanDistance () {
+        return manhattanDistance;
+    }
+
+    /**
+     *
+     * @return The number of tiles that are not in their goal position, the empty case is not counted
+     */
+    public int getMisplacedElements () {
+        return misplacedElements;
+    }
+}
@@ -0,0 +1,164 @@
+package taquine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Class implementing a priority queue for small non-negative integer priorities, like the f values of the searches
+ * One bucket per priority, each one being a LIFO linked list, so adding and polling are constant time
+ * An index of the elements gives constant time membership tests and priority changes
+ *
+ * @param <E>    The type of the elements, equal elements are the same entry of the queue
+ */
+
+public class BucketQueue<E> {
+
+    /**
+     * Entry of a bucket, linked to its neighbours in the same bucket
+     */
+    private static class Node<E> {
+        private E element;
+        private int priority;
+        private Node<E> previous;
+        private Node<E> next;
+    }
+
+    private Node<E>[] buckets;
+    private final HashMap<E, Node<E>> index;
+    // No bucket below min is used, Integer.MAX_VALUE when the queue is empty
+    private int min;
+    private int size;
+
+    /**
+     * Main constructor for BucketQueue
+     */
+    public BucketQueue () {
+        // An array of a generic type can't be created, the buckets only ever hold nodes of E
+        @SuppressWarnings("unchecked")
+        Node<E>[] buckets = (Node<E>[]) new Node<?>[64];
+        this.buckets = buckets;
+        this.index = new HashMap<>();
+        this.min = Integer.MAX_VALUE;
+        this.size = 0;
+    }
+
+    /**
+     * Adds the element with that priority, if an equal element is already queued it is replaced by this one
+     * and moved to the new priority, that's how we decrease the key of an element
+     *
+     * @param element     The element to queue
+     * @param priority    Its priority, the lowest one is polled first
+     */
+    public void put (E element, int priority) {
+        if (priority < 0)
+            throw new IllegalArgumentException("invalid priority " + priority);
+
+        Node<E> node = index.get(element);
+        if (node == null) {
+            node = new Node<>();
+            index.put(element, node);
+            size++;
+        } else {
+            unlink(node);
+        }
+
+        node.element = element;
+        node.priority = priority;
+        link(node);
+    }
+
+    /**
+     * Retrieves and removes an element of the lowest priority, the last one added to that bucket
+     *
+     * @return The element, or null if the queue is empty
+     */
+    public E poll () {
+        if (size == 0)
+            return null;
+
+        while (buckets[min] == null) {
+            min++;
+        }
+
+        Node<E> node = buckets[min];
+        unlink(node);
+        index.remove(node.element);
+        size--;
+        if (size == 0)
+            min = Integer.MAX_VALUE;
+        return node.element;
+    }
+
+    /**
+     *
+     * @param element    The element we're looking
+     * @return The queued element equal to it, or null if there is none
+     */
+    public E get (E element) {
+        Node<E> node = index.get(element);
+        return node == null ? null : node.element;
+    }
+
+    /**
+     *
+     * @param element    The element we're looking
+     * @return True if an equal element is queued
+     */
+    public boolean contains (E element) {
+        return index.containsKey(element);
+    }
+
+    /**
+     *
+     * @return The number of elements queued
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     *
+     * @return True if there is no element queued
+     */
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     *
+     * @param node    The node we push on top of the bucket of its priority
+     */
+    private void link (Node<E> node) {
+        if (node.priority >= buckets.length) {
+            int length = buckets.length;
+            while (length <= node.priority) {
+                length *= 2;
+            }
+            buckets = Arrays.copyOf(buckets, length);
+        }
+
+        node.previous = null;
+        node.next = buckets[node.priority];
+        if (node.next != null)
+            node.next.previous = node;
+        buckets[node.priority] = node;
+
+        if (node.priority < min)
+            min = node.priority;
+    }
+
+    /**
+     *
+     * @param node    The node we remove from its bucket
+     */
+    private void unlink (Node<E> node) {
+        if (node.previous != null)
+            node.previous.next = node.next;
+        else
+            buckets[node.priority] = node.next;
+        if (node.next != null)
+            node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+    }
+}
@@ -0,0 +1,299 @@
+package taquine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Class implementing an exact distance table of every 3x3 board
+ *
+ * With an odd side, a move never changes the parity of the permutation of the tiles read without the empty case.
+ * A board reachable from the goal is then ranked by the case of its empty and the Lehmer code of its first 6 tiles:
+ * the last 2 are set by that parity, so the 181440 boards of the goal class get the ranks 0 to 181439. One
+ * backward breadth-first search from the goal gives the distance of each of them, kept modulo 16 in a nibble.
+ * The distances of two boards one move apart always differ by 1, so that is enough to descend from any board to
+ * the goal: each step takes the neighbour whose nibble is one less, and the path found is the shortest.
+ *
+ * Like the pattern database (see PatternDatabase), the table is built for the perfect grid: the tile standing in a
+ * case of another goal is looked up as the tile k of the case k-1, so it is used for any goal having its empty case
+ * at the bottom right. It is written in one small file, and built there on the first use if it is missing.
+ */
+
+public class DistanceOracle {
+    private static final int MAGIC = 0x5444494F;
+    private static final int N = 3;
+    private static final int CASES = N * N;
+    private static final int RANKED = CASES - 3;
+    /** The number of ranks for each case of the empty, 8! / 2 */
+    private static final int PER_EMPTY = 20160;
+    /** The number of boards reachable from the goal, 9! / 2 */
+    public static final int ENTRIES = 181440;
+    /** The longest shortest path of a 3x3 board */
+    public static final int MAX_DISTANCE = 31;
+    /** The directory of the table, it can be changed with the property taquine.oracle.dir */
+    public static final String DIRECTORY = System.getProperty("taquine.oracle.dir", "oracle");
+    private static final long GOAL = State.getPerfectGrid(N).getBoard();
+
+    private static volatile DistanceOracle loaded;
+
+    private final byte[] distances;
+
+    /**
+     * Constructor from the nibbles of a table, see load and generate
+     *
+     * @param distances    The distance of each rank modulo 16, two ranks per byte, the even one in the low bits
+     */
+    private DistanceOracle (byte[] distances) {
+        this.distances = distances;
+    }
+
+    /**
+     * The table is loaded once and shared by every search
+     *
+     * @return The table of DIRECTORY, built and written there if it is missing
+     */
+    public static DistanceOracle get () {
+        DistanceOracle oracle = loaded;
+        if (oracle == null) {
+            synchronized (DistanceOracle.class) {
+                oracle = loaded;
+                if (oracle == null) {
+                    File file = getFile(new File(DIRECTORY));
+                    try {
+                        oracle = file.isFile() ? load(file) : write(build(), file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    loaded = oracle;
+                }
+            }
+        }
+        return oracle;
+    }
+
+    /**
+     *
+     * @param directory    The directory of the table
+     * @return The file of the table
+     */
+    public static File getFile (File directory) {
+        return new File(directory, N + "x" + N + ".dist");
+    }
+
+    /**
+     *
+     * @param file    The file written by generate
+     * @return The distance oracle of that file
+     */
+    public static DistanceOracle load (File file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != N)
+                throw new IllegalArgumentException(file + " is not a distance table");
+            byte[] distances = new byte[ENTRIES / 2];
+            input.readFully(distances);
+            if (input.read() >= 0)
+                throw new IllegalArgumentException(file + " is not a distance table");
+            return new DistanceOracle(distances);
+        }
+    }
+
+    /**
+     * Builds the table and writes it in the file of the directory
+     *
+     * @param directory    The directory of the table
+     * @return The file written
+     */
+    public static File generate (File directory) throws IOException {
+        File file = getFile(directory);
+        write(build(), file);
+        loaded = null;
+        return file;
+    }
+
+    /**
+     *
+     * @param oracle    The table to write
+     * @param file      Its file, the directory is created if needed
+     * @return The table written
+     */
+    private static DistanceOracle write (DistanceOracle oracle, File file) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can't create the directory " + directory);
+
+        // We write a temporary file first, so a concurrent run never loads a truncated table
+        File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(N);
+            output.write(oracle.distances);
+        }
+        if (!temporary.renameTo(file) && !file.isFile())
+            throw new IOException("Can't write " + file);
+        return oracle;
+    }
+
+    /**
+     * Backward breadth-first search from the perfect grid over the packed boards, the queue holding every board once
+     *
+     * @return The table of every board of the goal class
+     */
+    private static DistanceOracle build () {
+        byte[] distances = new byte[ENTRIES / 2];
+        long[] seen = new long[(ENTRIES + 63) / 64];
+        long[] queue = new long[ENTRIES];
+        int[] depths = new int[ENTRIES];
+
+        int goalRank = rank(GOAL);
+        seen[goalRank >>> 6] |= 1L << goalRank;
+        queue[0] = GOAL;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            long board = queue[head];
+            int depth = depths[head++];
+            int rank = rank(board);
+            distances[rank >>> 1] |= (byte) ((depth & 0xF) << ((rank & 1) * 4));
+
+            int empty = PackedBoard.indexOfEmpty(board, N);
+            for (int move = 0; move < 4; move++) {
+                int target = PackedBoard.target(empty, N, move);
+                if (target < 0)
+                    continue;
+                long next = PackedBoard.move(board, empty, target);
+                int nextRank = rank(next);
+                if ((seen[nextRank >>> 6] & 1L << nextRank) == 0) {
+                    seen[nextRank >>> 6] |= 1L << nextRank;
+                    depths[tail] = depth + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        if (tail != ENTRIES)
+            throw new IllegalStateException(tail + " boards reached instead of " + ENTRIES);
+        return new DistanceOracle(distances);
+    }
+
+    /**
+     * The case of the empty, then the Lehmer code of the first 6 tiles read without it, each digit being the number
+     * of smaller tiles not used before it
+     *
+     * @param board    A packed 3x3 board
+     * @return Its rank, between 0 and ENTRIES - 1, shared with the board of the other parity having the same 6 first tiles
+     */
+    private static int rank (long board) {
+        int empty = PackedBoard.indexOfEmpty(board, N);
+        int rank = 0;
+        int used = 0;
+        for (int k = 0, i = 0; i < RANKED; k++) {
+            int tile = PackedBoard.tile(board, k);
+            if (tile == 0)
+                continue;
+            rank = rank * (CASES - 1 - i) + tile - 1 - Integer.bitCount(used & ((1 << tile) - 1));
+            used |= 1 << tile;
+            i++;
+        }
+        return empty * PER_EMPTY + rank;
+    }
+
+    /**
+     *
+     * @param board    A packed 3x3 board, relabeled for the perfect grid
+     * @return Its distance to the perfect grid, modulo 16
+     */
+    private int nibble (long board) {
+        int rank = rank(board);
+        return (distances[rank >>> 1] >>> ((rank & 1) * 4)) & 0xF;
+    }
+
+    /**
+     * The tile k of the perfect grid stands in the case k-1, so the tile of each case of the goal is renamed that way
+     *
+     * @param board        A packed 3x3 board
+     * @param goalState    The goal, its empty case at the bottom right
+     * @return The board whose distance to the perfect grid is the one of the board to the goal
+     * @throws IllegalArgumentException if the empty case of the goal is not at the bottom right like in the perfect grid
+     */
+    private static long relabel (long board, State goalState) {
+        if (goalState.getN() != N)
+            throw new IllegalArgumentException("This type of search only supports the size " + N);
+        if (goalState.getTile(CASES - 1) != 0)
+            throw new IllegalArgumentException("The distance oracle needs a goal with the empty case at the bottom right");
+
+        return PackedBoard.relabel(board, goalState.getBoard(), N);
+    }
+
+    /**
+     * Walks down the table from the initial board, it allocates nothing but the moves returned
+     *
+     * @param initialState    The initial state of our puzzle, it must be solvable
+     * @param goalState       The goal state of our puzzle
+     * @param metrics         The metrics of the search, each board of the path is an expanded state
+     * @return The moves of the empty case of the shortest path, see Board.MOVE_NAMES
+     * @throws IllegalArgumentException if the puzzle is not a 3x3 one with the empty case of the goal at the bottom right
+     */
+    public byte[] solve (State initialState, State goalState, SearchMetrics metrics) {
+        byte[] moves = new byte[MAX_DISTANCE];
+        int length = descend(relabel(initialState.getBoard(), goalState), moves, metrics);
+
+        byte[] path = new byte[length];
+        System.arraycopy(moves, 0, path, 0, length);
+        return path;
+    }
+
+    /**
+     *
+     * @param state        A state of the puzzle, it must be solvable
+     * @param goalState    The goal state of our puzzle
+     * @return The length of the shortest path from that state to the goal
+     * @throws IllegalArgumentException if the puzzle is not a 3x3 one with the empty case of the goal at the bottom right
+     */
+    public int distance (State state, State goalState) {
+        return descend(relabel(state.getBoard(), goalState), null, null);
+    }
+
+    /**
+     *
+     * @param board      A packed 3x3 board, relabeled for the perfect grid
+     * @param moves      Filled with the moves of the empty case of the shortest path, or null
+     * @param metrics    The metrics of the search, or null
+     * @return The length of the shortest path from that board to the perfect grid
+     */
+    private int descend (long board, byte[] moves, SearchMetrics metrics) {
+        int length = 0;
+        int distance = nibble(board);
+        while (board != GOAL) {
+            if (metrics != null)
+                metrics.addExpanded();
+            // The neighbours are one move closer or one move further, and their nibbles (d-1)&0xF and (d+1)&0xF
+            // never collide, so any neighbour with the nibble below ours is closer, the first one found is taken
+            int closer = (distance - 1) & 0xF;
+            int empty = PackedBoard.indexOfEmpty(board, N);
+            for (int move = 0; move < 4; move++) {
+                int target = PackedBoard.target(empty, N, move);
+                if (target < 0)
+                    continue;
+                long next = PackedBoard.move(board, empty, target);
+                if (metrics != null)
+                    metrics.addGenerated();
+                if (nibble(next) == closer) {
+                    if (moves != null)
+                        moves[length] = (byte) move;
+                    length++;
+                    board = next;
+                    distance = closer;
+                    break;
+                }
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,459 @@
+package taquine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Class implementing a breadth-first search keeping its layers on disk, for state spaces bigger than the memory
+ *
+ * Each depth is a file of packed boards (see PackedBoard), sorted and without duplicates. The successors of a depth
+ * are sorted in runs of bufferSize boards, written to disk, then merged, and the duplicates are removed by the merge
+ * itself: the moves are reversible and each one changes the parity of the position of the empty case, so a successor
+ * already seen is in the depth just before, the only file merged with the runs. No hash set is needed, and the memory
+ * is bounded by bufferSize.
+ *
+ * The files of every depth are kept until the search ends, the path is found backward from the goal by looking,
+ * at each depth, for a neighbour in the file before, with a binary search on the file.
+ *
+ * The budget is checked as the boards of a depth are expanded, and every MERGE_CHECK boards of the merge, a depth
+ * being too long to wait for its end. The files left by a search stopped are deleted by close.
+ */
+
+public class ExternalBfs implements Closeable {
+    /** The directory of the layers, it can be changed with the property taquine.bfs.dir */
+    public static final String DIRECTORY = System.getProperty("taquine.bfs.dir", System.getProperty("java.io.tmpdir"));
+
+    private static final int IO_BUFFER = 1 << 16;
+    // The boards merged between two checks of the budget
+    private static final int MERGE_CHECK = 1 << 16;
+
+    private final int n;
+    private final long[] buffer;
+    private final File directory;
+    private final SearchMetrics metrics;
+    private final ArrayList<Long> sizes;
+
+    /**
+     * Main constructor for ExternalBfs
+     *
+     * @param n             The size of the puzzle side, at most MAX_PACKED_SIZE
+     * @param bufferSize    The number of successors sorted in memory at once
+     * @param parent        The directory where we create the directory of the layers, created if needed
+     * @param metrics       The metrics of the search, each depth is an iteration
+     * @throws IOException if the directory of the layers could not be created
+     */
+    public ExternalBfs (int n, int bufferSize, File parent, SearchMetrics metrics) throws IOException {
+        if (n > State.MAX_PACKED_SIZE)
+            throw new IllegalArgumentException("This type of search only supports sizes up to " + State.MAX_PACKED_SIZE);
+
+        this.n = n;
+        this.buffer = new long[bufferSize];
+        if (!parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create the directory " + parent);
+        this.directory = Files.createTempDirectory(parent.toPath(), "taquine-bfs").toFile();
+        this.metrics = metrics;
+        this.sizes = new ArrayList<>();
+    }
+
+    /**
+     *
+     * @param initialState    The initial state of our puzzle, it must be solvable
+     * @param goalState       The goal state of our puzzle
+     * @return The moves of the empty case of the shortest path, see Board.MOVE_NAMES
+     * @throws IOException if a layer could not be read or written
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    public byte[] solve (State initialState, State goalState) throws IOException {
+        long goal = goalState.getBoard();
+        int depth = start(initialState.getBoard());
+
+        while (!contains(layer(depth), goal)) {
+            if (expand(depth++) == 0)
+                return null;
+        }
+
+        return path(goal, depth);
+    }
+
+    /**
+     *
+     * @param initialState    The state the distances are counted from
+     * @param maxDepth        The last depth we count, -1 to enumerate every reachable board
+     * @return The number of boards at each distance from the initial state
+     * @throws IOException if a layer could not be read or written
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    public long[] histogram (State initialState, int maxDepth) throws IOException {
+        int depth = start(initialState.getBoard());
+
+        while (depth != maxDepth && expand(depth) > 0) {
+            depth++;
+        }
+
+        long[] histogram = new long[depth + 1];
+        for (int d = 0; d <= depth; d++) {
+            histogram[d] = sizes.get(d);
+        }
+        return histogram;
+    }
+
+    /**
+     *
+     * @param initial    The packed initial board
+     * @return The depth of the initial board, 0
+     * @throws IOException if the layer could not be written
+     */
+    private int start (long initial) throws IOException {
+        try (LayerWriter writer = new LayerWriter(layer(0))) {
+            writer.write(initial);
+        }
+        sizes.add(1L);
+        return 0;
+    }
+
+    /**
+     * Writes the next depth: the successors of this one that are not in the one before
+     *
+     * @param depth    The depth we expand
+     * @return The number of boards of the next depth
+     * @throws IOException if a layer could not be read or written
+     */
+    private long expand (int depth) throws IOException {
+        metrics.startIteration(depth);
+        metrics.updateOpen(sizes.get(depth));
+
+        ArrayList<File> runs = new ArrayList<>();
+        int size = 0;
+        long generated = 0;
+
+        try (LayerReader reader = new LayerReader(layer(depth))) {
+            while (reader.hasNext()) {
+                long board = reader.next();
+                metrics.addExpanded();
+                int empty = PackedBoard.indexOfEmpty(board, n);
+                for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+                    int target = PackedBoard.target(empty, n, move);
+                    if (target < 0)
+                        continue;
+                    if (size == buffer.length) {
+                        runs.add(writeRun(size, runs.size()));
+                        size = 0;
+                    }
+                    buffer[size++] = PackedBoard.move(board, empty, target);
+                    generated++;
+                }
+            }
+        }
+        if (size > 0)
+            runs.add(writeRun(size, runs.size()));
+
+        long count = merge(runs, depth);
+        for (File run : runs) {
+            Files.delete(run.toPath());
+        }
+
+        sizes.add(count);
+        metrics.addGenerated(generated);
+        metrics.addDuplicates(generated - count);
+        return count;
+    }
+
+    /**
+     *
+     * @param size      The number of boards of the buffer we write
+     * @param number    The number of the run in the depth
+     * @return The file of the run, the boards sorted without duplicates
+     * @throws IOException if the run could not be written
+     */
+    private File writeRun (int size, int number) throws IOException {
+        Arrays.sort(buffer, 0, size);
+
+        File run = new File(directory, "run-" + number + ".bin");
+        try (LayerWriter writer = new LayerWriter(run)) {
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || buffer[i] != buffer[i - 1])
+                    writer.write(buffer[i]);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Merges the runs into the next depth, the boards found in the previous depth are dropped
+     *
+     * @param runs     The runs of the successors of the depth
+     * @param depth    The depth we expanded
+     * @return The number of boards of the next depth
+     * @throws IOException if a layer could not be read or written
+     */
+    private long merge (ArrayList<File> runs, int depth) throws IOException {
+        PriorityQueue<LayerReader> heads = new PriorityQueue<>((a, b) -> Long.compare(a.peek(), b.peek()));
+        LayerReader previous = depth > 0 ? new LayerReader(layer(depth - 1)) : null;
+        long count = 0;
+
+        try (LayerWriter writer = new LayerWriter(layer(depth + 1))) {
+            for (File run : runs) {
+                LayerReader reader = new LayerReader(run);
+                if (reader.hasNext())
+                    heads.add(reader);
+                else
+                    reader.close();
+            }
+
+            boolean first = true;
+            long last = 0;
+            long merged = 0;
+            while (!heads.isEmpty()) {
+                if ((++merged & (MERGE_CHECK - 1)) == 0)
+                    metrics.checkBudget();
+                LayerReader head = heads.poll();
+                long board = head.next();
+                if (head.hasNext())
+                    heads.add(head);
+                else
+                    head.close();
+
+                if (!first && board == last)
+                    continue;
+                first = false;
+                last = board;
+
+                if (previous == null || !previous.skipTo(board)) {
+                    writer.write(board);
+                    count++;
+                }
+            }
+        } finally {
+            for (LayerReader head : heads) {
+                head.close();
+            }
+            if (previous != null)
+                previous.close();
+        }
+
+        return count;
+    }
+
+    /**
+     *
+     * @param goal     The packed goal board
+     * @param depth    Its depth
+     * @return The moves from the initial board to the goal, each board having a neighbour in the depth before
+     * @throws IOException if a layer could not be read
+     */
+    private byte[] path (long goal, int depth) throws IOException {
+        byte[] moves = new byte[depth];
+
+        long board = goal;
+        for (int d = depth - 1; d >= 0; d--) {
+            int empty = PackedBoard.indexOfEmpty(board, n);
+            for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+                int target = PackedBoard.target(empty, n, move);
+                if (target < 0)
+                    continue;
+                long neighbour = PackedBoard.move(board, empty, target);
+                if (contains(layer(d), neighbour)) {
+                    // The move from the neighbour brings the empty case back here
+                    moves[d] = (byte) Board.inverse(move);
+                    board = neighbour;
+                    break;
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     *
+     * @param layer    A sorted file of packed boards
+     * @param board    The packed board we're looking
+     * @return True if the board is in that file
+     * @throws IOException if the file could not be read
+     */
+    private static boolean contains (File layer, long board) throws IOException {
+        try (FileChannel channel = FileChannel.open(layer.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer entry = ByteBuffer.allocate(Long.BYTES);
+            long low = 0;
+            long high = channel.size() / Long.BYTES - 1;
+
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                entry.clear();
+                channel.read(entry, middle * Long.BYTES);
+                long value = entry.getLong(0);
+                if (value < board)
+                    low = middle + 1;
+                else if (value > board)
+                    high = middle - 1;
+                else
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     *
+     * @param depth    A depth of the search
+     * @return The file of the boards of that depth
+     */
+    private File layer (int depth) {
+        return new File(directory, "layer-" + depth + ".bin");
+    }
+
+    /**
+     * Deletes the layers and their directory
+     */
+    @Override
+    public void close () throws IOException {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.deleteIfExists(directory.toPath());
+    }
+
+    /**
+     * Sequential reader of a file of packed boards, through a channel and a direct buffer
+     */
+    private static class LayerReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private boolean available;
+        private long head;
+
+        /**
+         *
+         * @param file    The file we read
+         * @throws IOException if the file could not be opened
+         */
+        private LayerReader (File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+            this.buffer.limit(0);
+            advance();
+        }
+
+        /**
+         * Reads the next board in head, available becomes false at the end of the file
+         *
+         * @throws IOException if the file could not be read
+         */
+        private void advance () throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                // We fill the whole buffer, so a board is never split between two reads
+                buffer.clear();
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (read >= 0 && buffer.hasRemaining());
+                buffer.flip();
+            }
+
+            available = buffer.remaining() >= Long.BYTES;
+            if (available)
+                head = buffer.getLong();
+        }
+
+        private boolean hasNext () {
+            return available;
+        }
+
+        /**
+         *
+         * @return The next board, without reading it
+         */
+        private long peek () {
+            return head;
+        }
+
+        /**
+         *
+         * @return The next board
+         * @throws IOException if the file could not be read
+         */
+        private long next () throws IOException {
+            long board = head;
+            advance();
+            return board;
+        }
+
+        /**
+         * Skips the boards lower than that one, the boards are asked in increasing order
+         *
+         * @param board    The board we're looking
+         * @return True if the board is in the file
+         * @throws IOException if the file could not be read
+         */
+        private boolean skipTo (long board) throws IOException {
+            while (available && head < board) {
+                advance();
+            }
+            return available && head == board;
+        }
+
+        @Override
+        public void close () throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Sequential writer of a file of packed boards, through a channel and a direct buffer
+     */
+    private static class LayerWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        /**
+         *
+         * @param file    The file we write, replaced if it exists
+         * @throws IOException if the file could not be created
+         */
+        private LayerWriter (File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+        }
+
+        /**
+         *
+         * @param board    The next board, not lower than the previous one
+         * @throws IOException if the file could not be written
+         */
+        private void write (long board) throws IOException {
+            if (!buffer.hasRemaining())
+                flush();
+            buffer.putLong(board);
+        }
+
+        /**
+         * Writes the buffer to the file
+         *
+         * @throws IOException if the file could not be written
+         */
+        private void flush () throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close () throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package taquine;
+
+/**
+ * Interface of the boards the heuristics can read, implemented by State and Board
+ */
+
+public interface Grid {
+
+    /**
+     *
+     * @return The size of the side of the puzzle, n
+     */
+    int getN ();
+
+    /**
+     *
+     * @param index    The index of the case, top left to bottom right
+     * @return The value of the case at that index, 0 for the empty case
+     */
+    int getTile (int index);
+}
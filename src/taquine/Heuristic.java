@@ -0,0 +1,111 @@
+package taquine;
+
+/**
+ * Enum of the heuristics the informed searches can use
+ * Each one reads the value maintained by the state or the board itself, or looks it up in precomputed tables
+ */
+
+public enum Heuristic {
+    MANHATTAN("manhattan") {
+        @Override
+        public int evaluate (State state) {
+            return state.getManhattanDistance();
+        }
+
+        @Override
+        public int evaluate (Board board) {
+            return board.getManhattanDistance();
+        }
+    },
+    MISPLACED("misplaced") {
+        @Override
+        public int evaluate (State state) {
+            return state.getMisplacedElements();
+        }
+
+        @Override
+        public int evaluate (Board board) {
+            return board.getMisplacedElements();
+        }
+    },
+    LINEAR_CONFLICT("linear-conflict") {
+        @Override
+        public int evaluate (State state) {
+            return state.getLinearConflictDistance();
+        }
+
+        @Override
+        public int evaluate (Board board) {
+            return board.getLinearConflictDistance();
+        }
+    },
+    WALKING_DISTANCE("walking-distance") {
+        @Override
+        public int evaluate (State state) {
+            return state.getWalkingDistance();
+        }
+
+        @Override
+        public int evaluate (Board board) {
+            return board.getWalkingDistance();
+        }
+    },
+    PATTERN_DATABASE("pdb") {
+        @Override
+        public int evaluate (State state) {
+            return state.getPatternDatabaseDistance();
+        }
+
+        @Override
+        public int evaluate (Board board) {
+            return board.getPatternDatabaseDistance();
+        }
+    };
+
+    private final String name;
+
+    /**
+     * Main constructor for Heuristic
+     *
+     * @param name    The name of the heuristic in the search types, like astar-manhattan
+     */
+    Heuristic (String name) {
+        this.name = name;
+    }
+
+    /**
+     *
+     * @param name    The name of a heuristic in the search types
+     * @return The heuristic of that name
+     * @throws IllegalArgumentException if there is no heuristic of that name
+     */
+    public static Heuristic fromName (String name) {
+        for (Heuristic heuristic : values()) {
+            if (heuristic.name.equals(name))
+                return heuristic;
+        }
+        throw new IllegalArgumentException("This type of search is invalid");
+    }
+
+    /**
+     *
+     * @return The name of the heuristic in the search types
+     */
+    public String getName () {
+        return name;
+    }
+
+    /**
+     *
+     * @param state    The state to evaluate, its goalState must be set
+     * @return The estimated cost from that state to its goalState
+     */
+    public abstract int evaluate (State state);
+
+    /**
+     *
+     * @param board    The board to evaluate
+     * @return The estimated cost from that board to its goal
+     */
+    public abstract int evaluate (Board board);
+}
@@ -0,0 +1,112 @@
+package taquine;
+
+/**
+ * Class implementing the iterative deepening A* search
+ * Depth-first searches bounded by f = cost + heuristic, the bound being raised to the smallest f that exceeded it,
+ * all on a single mutable Board, so the memory only depends on the depth of the solution
+ * The moves ending a redundant sequence, starting with the one undoing the last move, are rejected by a MovePruner
+ */
+
+public class IdaStar {
+    private static final int FOUND = -1;
+
+    private final Board board;
+    private final Heuristic heuristic;
+    private final MovePruner pruner;
+    private final SearchMetrics metrics;
+    private byte[] path;
+    private int length;
+
+    /**
+     * Main constructor for IdaStar
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState       The goal state of our puzzle
+     * @param heuristic       The heuristic we use, it must never overestimate to get the shortest path
+     * @param pruner          The automaton of the redundant sequences of moves
+     * @param metrics         The metrics of the search, each bound is an iteration
+     */
+    public IdaStar (State initialState, State goalState, Heuristic heuristic, MovePruner pruner, SearchMetrics metrics) {
+        this.board = new Board(initialState, goalState, heuristic);
+        this.heuristic = heuristic;
+        this.pruner = pruner;
+        this.metrics = metrics;
+        this.path = new byte[64];
+    }
+
+    /**
+     * The puzzle must be solvable, otherwise the search never ends
+     *
+     * @return The moves of the empty case of the shortest path, see Board.MOVE_NAMES
+     */
+    public byte[] solve () {
+        int bound = metrics.evaluate(heuristic, board);
+
+        while (true) {
+            metrics.startIteration(bound);
+            length = 0;
+            int next = search(0, bound, MovePruner.START);
+            if (next == FOUND) {
+                byte[] moves = new byte[length];
+                System.arraycopy(path, 0, moves, 0, length);
+                return moves;
+            }
+            bound = next;
+        }
+    }
+
+    /**
+     *
+     * @param cost        The cost of the path to the current board
+     * @param bound       The maximum f we explore in this iteration
+     * @param state       The state of the pruner after the moves that led to the current board
+     * @return FOUND if the goal was reached, otherwise the smallest f that exceeded the bound
+     */
+    private int search (int cost, int bound, int state) {
+        int estimate = metrics.evaluate(heuristic, board);
+        int f = cost + estimate;
+        if (f > bound)
+            return f;
+
+        metrics.addExpanded();
+        // The open list of a depth-first search is the current path
+        metrics.updateOpen(cost);
+
+        if (board.isGoal())
+            return FOUND;
+
+        int min = Integer.MAX_VALUE;
+        for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+            // Going back to the previous board, or around a cycle, can't be part of the first shortest path
+            int next = pruner.next(state, move);
+            if (next < 0 || !board.canMove(move))
+                continue;
+
+            board.move(move);
+            metrics.addGenerated();
+            push(move);
+            int result = search(cost + 1, bound, next);
+            if (result == FOUND)
+                return FOUND;
+            length--;
+            board.move(Board.inverse(move));
+
+            if (result < min)
+                min = result;
+        }
+        return min;
+    }
+
+    /**
+     *
+     * @param move    The move we append to the current path
+     */
+    private void push (int move) {
+        if (length == path.length) {
+            byte[] bigger = new byte[path.length * 2];
+            System.arraycopy(path, 0, bigger, 0, length);
+            path = bigger;
+        }
+        path[length++] = (byte) move;
+    }
+}
@@ -0,0 +1,92 @@
+package taquine;
+
+/**
+ * Class computing the linear conflicts of a board, added to the manhattan distance by the linear conflict heuristic
+ *
+ * Two tiles are in conflict when they are in their goal line (row or column) but in the wrong order: one of them
+ * has to leave the line and come back, which costs 2 moves the manhattan distance doesn't count. In each line,
+ * the tiles to move out are all but the longest sequence already in the right order.
+ */
+
+public final class LinearConflict {
+
+    private LinearConflict () {
+    }
+
+    /**
+     *
+     * @param grid           The board
+     * @param goalRows       The row of each tile in the goal
+     * @param goalColumns    The column of each tile in the goal
+     * @param buffer         A buffer of at least 2n ints, to avoid allocating one per line
+     * @return The number of tiles that must leave their goal line, in every row and every column
+     */
+    public static int conflicts (Grid grid, int[] goalRows, int[] goalColumns, int[] buffer) {
+        int conflicts = 0;
+        for (int line = 0; line < grid.getN(); line++) {
+            conflicts += lineConflicts(grid, line, true, goalRows, goalColumns, buffer);
+            conflicts += lineConflicts(grid, line, false, goalRows, goalColumns, buffer);
+        }
+        return conflicts;
+    }
+
+    /**
+     * A move only changes the lines the tile leaves and enters: the columns for a move along a row,
+     * the rows for a move along a column. The difference of this value before and after the move is the
+     * difference of the conflicts of the whole board
+     *
+     * @param grid           The board
+     * @param from           The index the moving tile leaves
+     * @param to             The index the moving tile enters
+     * @param goalRows       The row of each tile in the goal
+     * @param goalColumns    The column of each tile in the goal
+     * @param buffer         A buffer of at least 2n ints
+     * @return The conflicts of the two lines changed by that move
+     */
+    public static int moveConflicts (Grid grid, int from, int to, int[] goalRows, int[] goalColumns, int[] buffer) {
+        int n = grid.getN();
+        if (from / n == to / n)
+            return lineConflicts(grid, from % n, false, goalRows, goalColumns, buffer)
+                    + lineConflicts(grid, to % n, false, goalRows, goalColumns, buffer);
+        return lineConflicts(grid, from / n, true, goalRows, goalColumns, buffer)
+                + lineConflicts(grid, to / n, true, goalRows, goalColumns, buffer);
+    }
+
+    /**
+     *
+     * @param grid           The board
+     * @param line           The index of the row or of the column
+     * @param row            True for a row, false for a column
+     * @param goalRows       The row of each tile in the goal
+     * @param goalColumns    The column of each tile in the goal
+     * @param buffer         A buffer of at least 2n ints
+     * @return The number of tiles of that line that must leave it to let the others reach their goal order
+     */
+    private static int lineConflicts (Grid grid, int line, boolean row, int[] goalRows, int[] goalColumns, int[] buffer) {
+        int n = grid.getN();
+
+        // The goal positions along the line of the tiles whose goal is in that line, in their current order
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int tile = grid.getTile(row ? line * n + i : i * n + line);
+            if (tile == 0)
+                continue;
+            if (row ? goalRows[tile] == line : goalColumns[tile] == line)
+                buffer[count++] = row ? goalColumns[tile] : goalRows[tile];
+        }
+
+        // Longest increasing subsequence, its lengths stored after the positions
+        int longest = 0;
+        for (int i = 0; i < count; i++) {
+            int length = 1;
+            for (int j = 0; j < i; j++) {
+                if (buffer[j] < buffer[i] && buffer[n + j] + 1 > length)
+                    length = buffer[n + j] + 1;
+            }
+            buffer[n + i] = length;
+            longest = Math.max(longest, length);
+        }
+
+        return count - longest;
+    }
+}
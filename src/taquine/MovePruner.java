@@ -0,0 +1,381 @@
+package taquine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class of a finite-state machine rejecting the sequences of moves that have a shorter or equal equivalent
+ *
+ * The effect of a sequence of moves of the empty case only depends on the cases it crosses, not on the tiles nor on
+ * the size of the board. So we enumerate the sequences up to a depth on an unbounded board, in the order of their
+ * length then of Board.MOVE_NAMES, and a sequence is redundant when an earlier one moves the tiles the same way while
+ * staying in the rectangle it crosses: that one is possible whenever it is. The shortest path that comes first in
+ * that order contains no redundant sequence, so rejecting them keeps at least one shortest path to every board.
+ *
+ * The redundant sequences are the patterns of an Aho-Corasick automaton: its state follows the moves of a path and
+ * next gives -1 as soon as the path ends with one of them. With the depth 2 it only rejects the move undoing the last
+ * one, from the depth 6 it also rejects the paths going around a block of 2x2 cases and longer cycles.
+ * The automaton only keeps the shortest path to a board it reaches several times if that board is not pruned
+ * anyway, so it is meant for the depth-first searches, the ones with a visited table only skip the inverse moves.
+ */
+
+public final class MovePruner {
+    /** The state of the automaton for the empty path */
+    public static final int START = 0;
+    /** The longest sequence tested, its moves take 2 bits each in the int index of a BitSet */
+    public static final int MAX_DEPTH = 15;
+    private static final int MOVES = 4;
+    private static final int[] DX = {-1, 0, 1, 0};
+    private static final int[] DY = {0, -1, 0, 1};
+
+    private static final ConcurrentHashMap<Integer, MovePruner> BUILT = new ConcurrentHashMap<>();
+
+    private final int depth;
+    private final int[] transitions;
+    private final int patterns;
+
+    /**
+     * Constructor from the table of the automaton, see build
+     *
+     * @param depth          The length of the longest sequence tested
+     * @param transitions    The next state of each state and move, -1 for the moves rejected
+     * @param patterns       The number of redundant sequences
+     */
+    private MovePruner (int depth, int[] transitions, int patterns) {
+        this.depth = depth;
+        this.transitions = transitions;
+        this.patterns = patterns;
+    }
+
+    /**
+     * The automaton is built once per depth and shared by every search
+     *
+     * @param depth    The length of the longest sequence tested, from 2 to MAX_DEPTH
+     * @return The automaton rejecting the redundant sequences up to that length
+     */
+    public static MovePruner forDepth (int depth) {
+        if (depth < 2)
+            throw new IllegalArgumentException("The depth of the move pruning must be at least 2");
+        if (depth > MAX_DEPTH)
+            throw new IllegalArgumentException("The depth of the move pruning must be at most " + MAX_DEPTH);
+        return BUILT.computeIfAbsent(depth, MovePruner::build);
+    }
+
+    /**
+     *
+     * @param state    The state of the automaton after the moves of a path, START for the empty one
+     * @param move     The next move of the empty case, see Board.MOVE_NAMES
+     * @return The state after that move, or -1 if the path would end with a redundant sequence
+     */
+    public int next (int state, int move) {
+        return transitions[state * MOVES + move];
+    }
+
+    /**
+     *
+     * @return The length of the longest sequence tested
+     */
+    public int getDepth () {
+        return depth;
+    }
+
+    /**
+     *
+     * @return The number of states of the automaton
+     */
+    public int getStates () {
+        return transitions.length / MOVES;
+    }
+
+    /**
+     *
+     * @return The number of redundant sequences rejected
+     */
+    public int getPatterns () {
+        return patterns;
+    }
+
+    /**
+     *
+     * @param depth    The length of the longest sequence tested
+     * @return The automaton of the redundant sequences up to that length
+     */
+    private static MovePruner build (int depth) {
+        List<String> redundant = new Enumeration(depth).run();
+
+        // The trie of the patterns, each node is a state, the failure links give the longest suffix in the trie
+        ArrayList<int[]> children = new ArrayList<>();
+        ArrayList<Boolean> rejected = new ArrayList<>();
+        children.add(newNode());
+        rejected.add(false);
+        for (String pattern : redundant) {
+            int node = START;
+            for (int i = 0; i < pattern.length(); i++) {
+                int move = Board.MOVE_NAMES.indexOf(pattern.charAt(i));
+                if (children.get(node)[move] < 0) {
+                    children.get(node)[move] = children.size();
+                    children.add(newNode());
+                    rejected.add(false);
+                }
+                node = children.get(node)[move];
+            }
+            rejected.set(node, true);
+        }
+
+        int states = children.size();
+        int[] transitions = new int[states * MOVES];
+        int[] failure = new int[states];
+        boolean[] rejecting = new boolean[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (int move = 0; move < MOVES; move++) {
+            int child = children.get(START)[move];
+            transitions[START * MOVES + move] = child < 0 ? START : child;
+            if (child >= 0) {
+                failure[child] = START;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            // A node is rejecting if a pattern ends there, or at its longest suffix in the trie
+            rejecting[node] = rejected.get(node) || rejecting[failure[node]];
+            for (int move = 0; move < MOVES; move++) {
+                int child = children.get(node)[move];
+                if (child < 0) {
+                    transitions[node * MOVES + move] = transitions[failure[node] * MOVES + move];
+                } else {
+                    transitions[node * MOVES + move] = child;
+                    failure[child] = transitions[failure[node] * MOVES + move];
+                    queue.add(child);
+                }
+            }
+        }
+
+        for (int i = 0; i < transitions.length; i++) {
+            if (rejecting[transitions[i]])
+                transitions[i] = -1;
+        }
+        return new MovePruner(depth, transitions, redundant.size());
+    }
+
+    /**
+     *
+     * @return A node of the trie without children
+     */
+    private static int[] newNode () {
+        int[] node = new int[MOVES];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    /**
+     * Enumeration of the sequences, length by length, on an unbounded board centered on the empty case
+     * The sequences with a redundant suffix are not extended, their extensions are redundant too
+     */
+    private static final class Enumeration {
+        private static final int SIDE = 64;
+
+        private final int depth;
+        // The redundant sequences of each length, indexed by their moves, 2 bits each, the last one in the low bits
+        private final BitSet[] redundant;
+        private final ArrayList<String> patterns = new ArrayList<>();
+        // The rectangles crossed by the earlier sequences of each effect, minX, minY, maxX and maxY
+        private final HashMap<Effect, ArrayList<int[]>> effects = new HashMap<>();
+        // The case each tile comes from, every case being its own at the start
+        private final int[] origins = new int[SIDE * SIDE];
+        private final byte[] sequence;
+        private int length;
+        // The effect of the sequence: two hashes, each one the xor of a value for each case whose tile moved
+        private long hash;
+        private long check;
+
+        /**
+         * Main constructor for Enumeration
+         *
+         * @param depth    The length of the longest sequence tested, at most MAX_DEPTH for the codes to be
+         *                 indexes of a BitSet
+         */
+        private Enumeration (int depth) {
+            if (depth > MAX_DEPTH || depth >= SIDE / 2)
+                throw new IllegalArgumentException("The depth of the move pruning must be at most " + MAX_DEPTH);
+            this.depth = depth;
+            this.redundant = new BitSet[depth + 1];
+            this.sequence = new byte[depth];
+            for (int cell = 0; cell < origins.length; cell++) {
+                origins[cell] = cell;
+            }
+        }
+
+        /**
+         *
+         * @return The redundant sequences, none of them containing another one before its last move
+         */
+        private List<String> run () {
+            int center = SIDE / 2;
+            record(new int[]{center, center, center, center});
+            for (int pass = 1; pass <= depth; pass++) {
+                extend(center, center, pass, 0, center, center, center, center);
+            }
+            return patterns;
+        }
+
+        /**
+         *
+         * @param x       The column of the empty case
+         * @param y       The row of the empty case
+         * @param pass    The length of the sequences of this pass
+         * @param code    The moves of the sequence so far, 2 bits each
+         * @param minX    The rectangle crossed by the sequence so far
+         * @param minY    The rectangle crossed by the sequence so far
+         * @param maxX    The rectangle crossed by the sequence so far
+         * @param maxY    The rectangle crossed by the sequence so far
+         */
+        private void extend (int x, int y, int pass, long code, int minX, int minY, int maxX, int maxY) {
+            if (length == pass) {
+                if (!record(new int[]{minX, minY, maxX, maxY})) {
+                    redundant(pass).set((int) code);
+                    StringBuilder pattern = new StringBuilder(pass);
+                    for (int i = 0; i < pass; i++) {
+                        pattern.append(Board.MOVE_NAMES.charAt(sequence[i]));
+                    }
+                    patterns.add(pattern.toString());
+                }
+                return;
+            }
+
+            for (int move = 0; move < MOVES; move++) {
+                long next = code << 2 | move;
+                if (endsRedundant(next, length + 1))
+                    continue;
+
+                int tx = x + DX[move];
+                int ty = y + DY[move];
+                int empty = y * SIDE + x;
+                int target = ty * SIDE + tx;
+                int emptyOrigin = origins[empty];
+                int targetOrigin = origins[target];
+
+                // The tile of the target case goes into the empty case
+                set(empty, targetOrigin);
+                set(target, emptyOrigin);
+                sequence[length++] = (byte) move;
+                extend(tx, ty, pass, next, Math.min(minX, tx), Math.min(minY, ty), Math.max(maxX, tx), Math.max(maxY, ty));
+                length--;
+                set(target, targetOrigin);
+                set(empty, emptyOrigin);
+            }
+        }
+
+        /**
+         *
+         * @param length    A length of sequences
+         * @return The redundant sequences of that length
+         */
+        private BitSet redundant (int length) {
+            if (redundant[length] == null)
+                redundant[length] = new BitSet();
+            return redundant[length];
+        }
+
+        /**
+         *
+         * @param code      The moves of a sequence, 2 bits each
+         * @param length    The length of that sequence
+         * @return True if a suffix of the sequence, of 2 moves or more, is redundant
+         */
+        private boolean endsRedundant (long code, int length) {
+            for (int suffix = 2; suffix <= length; suffix++) {
+                BitSet set = redundant[suffix];
+                if (set != null && set.get((int) (code & ((1L << (2 * suffix)) - 1))))
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         *
+         * @param box    The rectangle crossed by the current sequence
+         * @return False if an earlier sequence of the same effect stays in that rectangle, otherwise the
+         *         sequence is kept as one of that effect
+         */
+        private boolean record (int[] box) {
+            ArrayList<int[]> boxes = effects.computeIfAbsent(new Effect(hash, check), key -> new ArrayList<>());
+            for (int[] earlier : boxes) {
+                if (earlier[0] >= box[0] && earlier[1] >= box[1] && earlier[2] <= box[2] && earlier[3] <= box[3])
+                    return false;
+            }
+            boxes.add(box);
+            return true;
+        }
+
+        /**
+         * The hashes of the effect are updated with the change of that case only
+         *
+         * @param cell      A case
+         * @param origin    The case its tile comes from now
+         */
+        private void set (int cell, int origin) {
+            int previous = origins[cell];
+            if (previous != cell) {
+                hash ^= mix(cell, previous, 0x9E3779B97F4A7C15L);
+                check ^= mix(cell, previous, 0xC2B2AE3D27D4EB4FL);
+            }
+            if (origin != cell) {
+                hash ^= mix(cell, origin, 0x9E3779B97F4A7C15L);
+                check ^= mix(cell, origin, 0xC2B2AE3D27D4EB4FL);
+            }
+            origins[cell] = origin;
+        }
+
+        /**
+         * The finalizer of SplitMix64, two seeds give two independent hashes
+         *
+         * @param cell      A case
+         * @param origin    The case its tile comes from
+         * @param seed      The seed of the hash
+         * @return The value of that pair in the hash
+         */
+        private static long mix (int cell, int origin, long seed) {
+            long z = ((long) cell << 32 | origin) * seed;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    /**
+     * The two hashes of the effect of a sequence, a collision of both of them is not expected on the few million
+     * sequences enumerated
+     */
+    private static final class Effect {
+        private final long hash;
+        private final long check;
+
+        /**
+         * Main constructor for Effect
+         *
+         * @param hash     The first hash of the effect
+         * @param check    The second hash of the effect
+         */
+        private Effect (long hash, long check) {
+            this.hash = hash;
+            this.check = check;
+        }
+
+        @Override
+        public boolean equals (Object obj) {
+            return obj instanceof Effect && ((Effect) obj).hash == hash && ((Effect) obj).check == check;
+        }
+
+        @Override
+        public int hashCode () {
+            return Long.hashCode(hash);
+        }
+    }
+}
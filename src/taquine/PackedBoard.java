@@ -0,0 +1,124 @@
+package taquine;
+
+/**
+ * Class of the operations on the packed boards, see State.getBoard
+ * The searches that only need the boards work on these longs instead of creating a State for each one
+ */
+
+public final class PackedBoard {
+    private static final int BITS_PER_TILE = 4;
+    private static final long TILE_MASK = 0xFL;
+
+    private PackedBoard () {
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @param index    The index of the case, top left to bottom right
+     * @return The value of the case at that index, 0 for the empty case
+     */
+    public static int tile (long board, int index) {
+        return (int) ((board >>> (index * BITS_PER_TILE)) & TILE_MASK);
+    }
+
+    /**
+     *
+     * @param values    The values of the cases, top left to bottom right, at most 16 of them
+     * @return The packed board
+     */
+    public static long pack (int[] values) {
+        long board = 0;
+        for (int k = 0; k < values.length; k++) {
+            board |= (long) values[k] << (k * BITS_PER_TILE);
+        }
+        return board;
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @param n        The size of the puzzle side
+     * @return The index of the empty case
+     */
+    public static int indexOfEmpty (long board, int n) {
+        for (int k = 0; k < n * n; k++) {
+            if (tile(board, k) == 0)
+                return k;
+        }
+        throw new IllegalArgumentException("no empty case in " + Long.toHexString(board));
+    }
+
+    /**
+     *
+     * @param indexOfEmpty    The index of the empty case
+     * @param n               The size of the puzzle side
+     * @param move            A move of the empty case, Board.LEFT, Board.UP, Board.RIGHT or Board.DOWN
+     * @return The index of the empty case after that move, -1 if it would leave the board
+     */
+    public static int target (int indexOfEmpty, int n, int move) {
+        switch (move) {
+            case Board.LEFT:
+                return indexOfEmpty % n != 0 ? indexOfEmpty - 1 : -1;
+            case Board.UP:
+                return indexOfEmpty >= n ? indexOfEmpty - n : -1;
+            case Board.RIGHT:
+                return indexOfEmpty % n != n - 1 ? indexOfEmpty + 1 : -1;
+            default:
+                return indexOfEmpty < n * (n - 1) ? indexOfEmpty + n : -1;
+        }
+    }
+
+    /**
+     * The empty case is a 0 nibble, so we only have to move the nibble of the tile
+     *
+     * @param board           The packed board
+     * @param indexOfEmpty    The index of the empty case
+     * @param target          The index of the tile that goes into the empty case
+     * @return The packed board after the swap
+     */
+    public static long move (long board, int indexOfEmpty, int target) {
+        long tile = (board >>> (target * BITS_PER_TILE)) & TILE_MASK;
+        return board - (tile << (target * BITS_PER_TILE)) + (tile << (indexOfEmpty * BITS_PER_TILE));
+    }
+
+    /**
+     * The searches keep the move that generated each board, it is enough to walk their path back
+     *
+     * @param board    The packed board
+     * @param n        The size of the puzzle side
+     * @param move     The move that generated the board
+     * @return The packed board before that move
+     */
+    public static long undo (long board, int n, int move) {
+        int empty = indexOfEmpty(board, n);
+        return move(board, empty, target(empty, n, Board.inverse(move)));
+    }
+
+    /**
+     * The tiles are renamed in the order of their cases in the goal, so the goal itself becomes the perfect grid
+     * (see State.getPerfectGrid) when its empty case is at the bottom right, or the perfect grid with the empty case
+     * moved to its case otherwise. The moves of the empty case are the same from both boards
+     *
+     * @param board    The packed board
+     * @param goal     The packed goal board
+     * @param n        The size of the puzzle side
+     * @return The packed board, its tiles renamed
+     */
+    public static long relabel (long board, long goal, int n) {
+        // A nibble per tile, the new name of each one
+        long labels = 0;
+        int label = 1;
+        for (int k = 0; k < n * n; k++) {
+            int tile = tile(goal, k);
+            if (tile != 0)
+                labels |= (long) label++ << (tile * BITS_PER_TILE);
+        }
+
+        long relabeled = 0;
+        for (int k = 0; k < n * n; k++) {
+            relabeled |= (labels >>> (tile(board, k) * BITS_PER_TILE) & TILE_MASK) << (k * BITS_PER_TILE);
+        }
+        return relabeled;
+    }
+}
@@ -0,0 +1,285 @@
+package taquine;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class implementing a level-synchronous breadth-first search expanding each depth on all the cores
+ *
+ * A depth is split in chunks expanded by a ForkJoinPool, the children are deduplicated in a VisitedTable split
+ * in shards each guarded by its own lock, and the next depth only starts once the whole current one is expanded,
+ * so the path found is the shortest, as with blindSolve. The boards are packed longs (see PackedBoard), the
+ * visited table keeps the move that generated each one, and the path is rebuilt backward from the goal.
+ *
+ * The workers add the boards they expanded to a shared counter from time to time, and the thread of the search
+ * reports it to the metrics while the depth is expanded, so that the budget stops the workers in the middle of it.
+ */
+
+public class ParallelBfs {
+    private static final int CHUNK = 4096;
+    private static final int SHARDS = 64;
+    // The boards a worker expands before adding them to the shared counter and looking for a stop
+    private static final int FLUSH = 1 << 10;
+    private static final long REPORT_MILLIS = 10;
+
+    private final long goal;
+    private final int n;
+    private final long maxStates;
+    private final ForkJoinPool pool;
+    private final VisitedTable[] shards;
+    private final AtomicBoolean found;
+    private final SearchMetrics metrics;
+    private final AtomicLong expanded = new AtomicLong();
+    private volatile boolean stopped;
+    private long visited;
+    private long reportedExpanded;
+
+    /**
+     * Main constructor for ParallelBfs
+     *
+     * @param goalState    The goal state of our puzzle, at most MAX_PACKED_SIZE
+     * @param maxStates    The number of visited boards after which we give up
+     * @param pool         The pool expanding the depths
+     * @param metrics      The metrics of the search, each depth is an iteration
+     */
+    public ParallelBfs (State goalState, long maxStates, ForkJoinPool pool, SearchMetrics metrics) {
+        this.goal = goalState.getBoard();
+        this.n = goalState.getN();
+        this.maxStates = maxStates;
+        this.pool = pool;
+        this.shards = new VisitedTable[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new VisitedTable(1 << 12, true);
+        }
+        this.found = new AtomicBoolean();
+        this.metrics = metrics;
+    }
+
+    /**
+     *
+     * @param initialState    The initial state of our puzzle
+     * @return The moves of the empty case of the shortest path, see Board.MOVE_NAMES,
+     *         or null if there is no solution or if we visited more than maxStates boards
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    public byte[] solve (State initialState) {
+        long start = initialState.getBoard();
+        add(start, 0, -1);
+
+        long[] layer = {start};
+        for (int depth = 0; !found.get() && start != goal; depth++) {
+            visited += layer.length;
+            if (layer.length == 0 || visited > maxStates)
+                return null;
+
+            metrics.startIteration(depth);
+            metrics.updateOpen(layer.length);
+            long[][] children = new long[(layer.length + CHUNK - 1) / CHUNK][];
+            long[] generated = new long[children.length];
+            Expansion expansion = new Expansion(layer, 0, children.length, depth + 1, children, generated);
+            pool.execute(expansion);
+            await(expansion);
+
+            // Each chunk counted its own successors, the metrics are only updated from this thread
+            long successors = 0;
+            for (long chunkGenerated : generated) {
+                successors += chunkGenerated;
+            }
+
+            // The chunks are joined in their order, the next depth doesn't depend on the scheduling
+            int size = 0;
+            for (long[] chunk : children) {
+                size += chunk.length;
+            }
+            layer = new long[size];
+            size = 0;
+            for (long[] chunk : children) {
+                System.arraycopy(chunk, 0, layer, size, chunk.length);
+                size += chunk.length;
+            }
+
+            metrics.addGenerated(successors);
+            metrics.addDuplicates(successors - size);
+            metrics.updateClosed(visited + size);
+        }
+
+        return path();
+    }
+
+    /**
+     * Reports the boards expanded by the workers to the metrics until the depth is expanded
+     *
+     * @param expansion    The task of the whole depth
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    private void await (Expansion expansion) {
+        try {
+            while (true) {
+                try {
+                    expansion.get(REPORT_MILLIS, TimeUnit.MILLISECONDS);
+                    report();
+                    return;
+                } catch (TimeoutException e) {
+                    report();
+                }
+            }
+        } catch (InterruptedException e) {
+            stop(expansion);
+            Thread.currentThread().interrupt();
+            throw new SearchBudget.Stop(SearchResult.Status.CANCELLED);
+        } catch (SearchBudget.Stop e) {
+            stop(expansion);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * The workers leave their chunks the next time they look for a stop, we wait for them so that none is still
+     * running on the pool when the search returns
+     *
+     * @param expansion    The task of the whole depth
+     */
+    private void stop (Expansion expansion) {
+        stopped = true;
+        expansion.quietlyJoin();
+    }
+
+    /**
+     * Adds the boards expanded by the workers since the last report to the metrics
+     *
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    private void report () {
+        long totalExpanded = expanded.get();
+        long boards = totalExpanded - reportedExpanded;
+        reportedExpanded = totalExpanded;
+        metrics.addExpanded(boards);
+    }
+
+    /**
+     * Expansion of the chunks between first and last of a depth, split in two until there is only one chunk
+     */
+    private class Expansion extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] layer;
+        private final int first;
+        private final int last;
+        private final int depth;
+        private final long[][] children;
+        private final long[] generated;
+
+        /**
+         *
+         * @param layer       The boards of the depth we expand
+         * @param first       The first chunk to expand
+         * @param last        The chunk after the last one to expand
+         * @param depth       The depth of the children
+         * @param children    Where we put the new boards of each chunk
+         * @param generated   Where we put the number of successors of each chunk, new or not
+         */
+        private Expansion (long[] layer, int first, int last, int depth, long[][] children, long[] generated) {
+            this.layer = layer;
+            this.first = first;
+            this.last = last;
+            this.depth = depth;
+            this.children = children;
+            this.generated = generated;
+        }
+
+        @Override
+        protected void compute () {
+            if (stopped)
+                return;
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new Expansion(layer, first, middle, depth, children, generated),
+                        new Expansion(layer, middle, last, depth, children, generated));
+                return;
+            }
+
+            int end = Math.min(layer.length, (first + 1) * CHUNK);
+            long[] chunk = new long[4 * (end - first * CHUNK)];
+            int size = 0;
+            long successors = 0;
+            int flushed = first * CHUNK;
+            int i;
+
+            // Once the goal is found the rest of the depth is useless, and once the search stopped too
+            for (i = first * CHUNK; i < end && !found.get(); i++) {
+                if (i - flushed == FLUSH) {
+                    expanded.addAndGet(FLUSH);
+                    flushed = i;
+                    if (stopped)
+                        break;
+                }
+                long board = layer[i];
+                int empty = PackedBoard.indexOfEmpty(board, n);
+                for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+                    int target = PackedBoard.target(empty, n, move);
+                    if (target < 0)
+                        continue;
+                    long child = PackedBoard.move(board, empty, target);
+                    successors++;
+                    if (add(child, depth, move)) {
+                        chunk[size++] = child;
+                        if (child == goal)
+                            found.set(true);
+                    }
+                }
+            }
+
+            expanded.addAndGet(i - flushed);
+            children[first] = Arrays.copyOf(chunk, size);
+            generated[first] = successors;
+        }
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @param depth    Its depth
+     * @param move     The move that generated it
+     * @return True if the board was not visited yet
+     */
+    private boolean add (long board, int depth, int move) {
+        VisitedTable shard = shard(board);
+        synchronized (shard) {
+            return shard.put(board, depth, move);
+        }
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @return The shard of the visited table of that board, chosen by the top bits of its hash
+     */
+    private VisitedTable shard (long board) {
+        return shards[(int) ((board * 0x9E3779B97F4A7C15L) >>> 58)];
+    }
+
+    /**
+     *
+     * @return The moves from the initial board to the goal, found backward from the goal with the visited table
+     */
+    private byte[] path () {
+        byte[] moves = new byte[shard(goal).getCost(goal)];
+
+        long board = goal;
+        for (int i = moves.length - 1; i >= 0; i--) {
+            int move = shard(board).getMove(board);
+            moves[i] = (byte) move;
+            // The parent is the board where the empty case comes back
+            board = PackedBoard.undo(board, n, move);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,334 @@
+package taquine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class implementing the iterative deepening A* search on all the cores
+ *
+ * Each iteration splits the tree at a shallow depth: the nodes above it are tasks forking one task per child, the
+ * ones at that depth search their subtree depth-first on their own Board, like IdaStar, and the ForkJoinPool lets
+ * the idle workers steal the subtrees still waiting. All the tasks of an iteration share its bound, and the first
+ * one reaching the goal stops the others: a path within the bound is one of the shortest, but which one depends on
+ * the scheduling. The next bound is the smallest f that exceeded it in any subtree.
+ *
+ * The workers count their states on their own and add them to shared counters from time to time, the metrics are
+ * only updated from the thread of the search, which also checks the budget and stops the workers when it runs out.
+ * The heuristic is not timed, the workers evaluate it directly.
+ */
+
+public class ParallelIdaStar {
+    private static final int FOUND = -1;
+    // The subtrees per worker, enough for the stealing to even out their sizes
+    private static final int SUBTREES_PER_WORKER = 64;
+    // The states a worker expands before adding them to the shared counters and looking for a stop
+    private static final int FLUSH = 1 << 10;
+    private static final long REPORT_MILLIS = 10;
+
+    private final State initialState;
+    private final State goalState;
+    private final Heuristic heuristic;
+    private final MovePruner pruner;
+    private final ForkJoinPool pool;
+    private final SearchMetrics metrics;
+    private final int splitDepth;
+    private final AtomicLong expanded = new AtomicLong();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicReference<byte[]> solution = new AtomicReference<>();
+    private volatile boolean stopped;
+    private long reportedExpanded;
+    private long reportedGenerated;
+
+    /**
+     * Main constructor for ParallelIdaStar
+     *
+     * @param initialState    The initial state of our puzzle, with its goal state set
+     * @param goalState       The goal state of our puzzle
+     * @param heuristic       The heuristic we use, it must never overestimate to get the shortest path
+     * @param pruner          The automaton of the redundant sequences of moves
+     * @param pool            The pool searching the subtrees
+     * @param metrics         The metrics of the search, each bound is an iteration
+     */
+    public ParallelIdaStar (State initialState, State goalState, Heuristic heuristic, MovePruner pruner, ForkJoinPool pool,
+                            SearchMetrics metrics) {
+        this.initialState = initialState;
+        this.goalState = goalState;
+        this.heuristic = heuristic;
+        this.pruner = pruner;
+        this.pool = pool;
+        this.metrics = metrics;
+        // Each depth about doubles the number of subtrees once the redundant moves are pruned
+        this.splitDepth = 32 - Integer.numberOfLeadingZeros(pool.getParallelism() * SUBTREES_PER_WORKER);
+    }
+
+    /**
+     * The puzzle must be solvable, otherwise the search never ends
+     *
+     * @return The moves of the empty case of the shortest path, see Board.MOVE_NAMES
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    public byte[] solve () {
+        int bound = metrics.evaluate(heuristic, initialState);
+
+        while (true) {
+            metrics.startIteration(bound);
+            Subtree root = new Subtree(initialState, 0, bound, MovePruner.START);
+            pool.execute(root);
+            int next = await(root);
+            if (next == FOUND)
+                return solution.get();
+            bound = next;
+        }
+    }
+
+    /**
+     * Reports the states of the workers to the metrics until the iteration ends
+     *
+     * @param root    The task of the root of the iteration
+     * @return FOUND if the goal was reached, otherwise the smallest f that exceeded the bound
+     */
+    private int await (Subtree root) {
+        try {
+            while (true) {
+                try {
+                    int result = root.get(REPORT_MILLIS, TimeUnit.MILLISECONDS);
+                    report();
+                    return result;
+                } catch (TimeoutException e) {
+                    report();
+                }
+            }
+        } catch (InterruptedException e) {
+            stop(root);
+            Thread.currentThread().interrupt();
+            throw new SearchBudget.Stop(SearchResult.Status.CANCELLED);
+        } catch (SearchBudget.Stop e) {
+            stop(root);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * The workers leave their subtrees the next time they look for a stop, we wait for them so that none is
+     * still running on the pool when the search returns
+     *
+     * @param root    The task of the root of the iteration
+     */
+    private void stop (Subtree root) {
+        stopped = true;
+        root.quietlyJoin();
+    }
+
+    /**
+     * Adds the states counted by the workers since the last report to the metrics
+     *
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    private void report () {
+        long totalGenerated = generated.get();
+        metrics.addGenerated(totalGenerated - reportedGenerated);
+        reportedGenerated = totalGenerated;
+
+        long totalExpanded = expanded.get();
+        long states = totalExpanded - reportedExpanded;
+        reportedExpanded = totalExpanded;
+        metrics.addExpanded(states);
+    }
+
+    /**
+     * Task of a node of the iteration, it forks a task per child above the split depth, and searches its whole
+     * subtree at that depth
+     */
+    private class Subtree extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final State state;
+        private final int cost;
+        private final int bound;
+        private final int prunerState;
+
+        /**
+         *
+         * @param state          The node of the task, its parents give the moves that led to it
+         * @param cost           The cost of the path to that node
+         * @param bound          The maximum f we explore in this iteration
+         * @param prunerState    The state of the pruner after the moves that led to that node
+         */
+        private Subtree (State state, int cost, int bound, int prunerState) {
+            this.state = state;
+            this.cost = cost;
+            this.bound = bound;
+            this.prunerState = prunerState;
+        }
+
+        @Override
+        protected Integer compute () {
+            if (stopped || solution.get() != null)
+                return FOUND;
+            if (cost == splitDepth)
+                return new Worker(state, cost).run(bound, prunerState);
+
+            int f = cost + heuristic.evaluate(state);
+            if (f > bound)
+                return f;
+
+            expanded.incrementAndGet();
+            if (state.equals(goalState)) {
+                solution.compareAndSet(null, moves(state, new byte[cost]));
+                return FOUND;
+            }
+
+            ArrayList<Subtree> children = new ArrayList<>(4);
+            for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+                int next = pruner.next(prunerState, move);
+                if (next < 0)
+                    continue;
+                State child = state.move(move);
+                if (child != null)
+                    children.add(new Subtree(child, cost + 1, bound, next));
+            }
+            generated.addAndGet(children.size());
+            invokeAll(children);
+
+            int min = Integer.MAX_VALUE;
+            for (Subtree child : children) {
+                int result = child.join();
+                if (result == FOUND)
+                    return FOUND;
+                if (result < min)
+                    min = result;
+            }
+            return min;
+        }
+    }
+
+    /**
+     * Depth-first search of a subtree on its own Board, see IdaStar.search
+     */
+    private class Worker {
+        private final State root;
+        private final Board board;
+        private byte[] path;
+        private int length;
+        private long expandedStates;
+        private long generatedStates;
+
+        /**
+         *
+         * @param root    The node at the split depth
+         * @param cost    The cost of the path to that node
+         */
+        private Worker (State root, int cost) {
+            this.root = root;
+            this.board = new Board(root, goalState, heuristic);
+            this.path = new byte[cost + 64];
+            this.length = cost;
+        }
+
+        /**
+         *
+         * @param bound          The maximum f we explore in this iteration
+         * @param prunerState    The state of the pruner after the moves that led to the root
+         * @return FOUND if the goal was reached or if the search stopped, otherwise the smallest f that exceeded
+         *         the bound
+         */
+        private int run (int bound, int prunerState) {
+            try {
+                return search(length, bound, prunerState);
+            } finally {
+                flush();
+            }
+        }
+
+        /**
+         *
+         * @param cost           The cost of the path to the current board
+         * @param bound          The maximum f we explore in this iteration
+         * @param prunerState    The state of the pruner after the moves that led to the current board
+         * @return FOUND if the goal was reached or if the search stopped, otherwise the smallest f that exceeded
+         *         the bound
+         */
+        private int search (int cost, int bound, int prunerState) {
+            int f = cost + heuristic.evaluate(board);
+            if (f > bound)
+                return f;
+
+            if ((++expandedStates & (FLUSH - 1)) == 0) {
+                flush();
+                if (stopped || solution.get() != null)
+                    return FOUND;
+            }
+
+            if (board.isGoal()) {
+                solution.compareAndSet(null, moves(root, Arrays.copyOf(path, length)));
+                return FOUND;
+            }
+
+            int min = Integer.MAX_VALUE;
+            for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+                int next = pruner.next(prunerState, move);
+                if (next < 0 || !board.canMove(move))
+                    continue;
+
+                board.move(move);
+                generatedStates++;
+                push(move);
+                int result = search(cost + 1, bound, next);
+                if (result == FOUND)
+                    return FOUND;
+                length--;
+                board.move(Board.inverse(move));
+
+                if (result < min)
+                    min = result;
+            }
+            return min;
+        }
+
+        /**
+         * Adds the states counted since the last flush to the shared counters
+         */
+        private void flush () {
+            expanded.addAndGet(expandedStates);
+            generated.addAndGet(generatedStates);
+            expandedStates = 0;
+            generatedStates = 0;
+        }
+
+        /**
+         *
+         * @param move    The move we append to the current path
+         */
+        private void push (int move) {
+            if (length == path.length)
+                path = Arrays.copyOf(path, path.length * 2);
+            path[length++] = (byte) move;
+        }
+    }
+
+    /**
+     *
+     * @param state    A node of the tree
+     * @param moves    The moves of a path, the first ones are filled with the moves from the root to that node
+     * @return The moves
+     */
+    private static byte[] moves (State state, byte[] moves) {
+        int i = 0;
+        for (State parent = state; parent.getParentState() != null; parent = parent.getParentState()) {
+            i++;
+        }
+        for (State parent = state; parent.getParentState() != null; parent = parent.getParentState()) {
+            moves[--i] = (byte) parent.getLastMove();
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,399 @@
+package taquine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class implementing an additive disjoint pattern database heuristic
+ *
+ * The tiles are split in groups, and for each group a table gives the number of moves of the tiles of that group
+ * needed to bring them to their goal positions, whatever the other tiles are. Only the moves of its own tiles are
+ * counted in each table, so the values of the groups can be added and the sum never overestimates.
+ *
+ * The groups are defined on the perfect grid (see State.getPerfectGrid): the tile k belongs to the case k-1.
+ * With another goal, a tile is looked up by the case it has in that goal, so the same tables are used for any goal
+ * having its empty case at the bottom right.
+ *
+ * The tables are built by a backward breadth-first search from the goal, written in one file per size and
+ * memory-mapped when loaded, so a run starts fast and the pages are shared between processes.
+ */
+
+public class PatternDatabase {
+    private static final int MAGIC = 0x54504442;
+    private static final int UNKNOWN = 0xFF;
+    /** The directory of the tables, it can be changed with the property taquine.pdb.dir */
+    public static final String DIRECTORY = System.getProperty("taquine.pdb.dir", "pdb");
+
+    private static final ConcurrentHashMap<Integer, PatternDatabase> LOADED = new ConcurrentHashMap<>();
+
+    private final int n;
+    private final int[][] groups;
+    private final int[] offsets;
+    private final MappedByteBuffer tables;
+
+    /**
+     * Constructor from a mapped file, see load
+     *
+     * @param n         The size of the puzzle side
+     * @param groups    The tiles of each group, as numbered on the perfect grid
+     * @param offsets   The offset of the table of each group in the buffer
+     * @param tables    The tables of all the groups, one byte per entry
+     */
+    private PatternDatabase (int n, int[][] groups, int[] offsets, MappedByteBuffer tables) {
+        this.n = n;
+        this.groups = groups;
+        this.offsets = offsets;
+        this.tables = tables;
+    }
+
+    /**
+     * The tables are loaded once per size and shared by every search
+     *
+     * @param n    The size of the puzzle side
+     * @return The pattern database of that size, loaded from DIRECTORY
+     * @throws IllegalArgumentException if the tables of that size were not generated
+     */
+    public static PatternDatabase forSize (int n) {
+        return LOADED.computeIfAbsent(n, size -> load(getFile(new File(DIRECTORY), size)));
+    }
+
+    /**
+     *
+     * @param directory    The directory of the tables
+     * @param n            The size of the puzzle side
+     * @return The file of the tables of that size
+     */
+    public static File getFile (File directory, int n) {
+        return new File(directory, n + "x" + n + ".pdb");
+    }
+
+    /**
+     *
+     * @param file    The file written by generate
+     * @return The pattern database, its tables mapped in memory
+     */
+    public static PatternDatabase load (File file) {
+        if (!file.isFile())
+            throw new IllegalArgumentException("No pattern database in " + file + ", generate it with: generate-pdb <Size>");
+
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC)
+                throw new IllegalArgumentException(file + " is not a pattern database");
+            int n = buffer.getInt();
+            int[][] groups = new int[buffer.getInt()][];
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = new int[buffer.getInt()];
+                for (int i = 0; i < groups[g].length; i++) {
+                    groups[g][i] = buffer.getInt();
+                }
+            }
+
+            int[] offsets = new int[groups.length];
+            long offset = buffer.position();
+            for (int g = 0; g < groups.length; g++) {
+                offsets[g] = (int) offset;
+                offset += entries(n * n, groups[g].length);
+            }
+            if (offset != channel.size())
+                throw new IllegalArgumentException(file + " is truncated");
+
+            // The mapping stays valid once the channel is closed
+            return new PatternDatabase(n, groups, offsets, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     *
+     * @param where        The case of each tile, indexed by the tile
+     * @param goalTiles    The tile of each case in the goal
+     * @return The sum of the distances of every group, it never overestimates the cost to the goal
+     * @throws IllegalArgumentException if the empty case of the goal is not at the bottom right like in the perfect grid
+     */
+    public int distance (int[] where, int[] goalTiles) {
+        // Otherwise a group would miss the tile of the case of the empty, and the tables don't apply
+        if (goalTiles[n * n - 1] != 0)
+            throw new IllegalArgumentException("The pattern database needs a goal with the empty case at the bottom right");
+
+        int distance = 0;
+        for (int g = 0; g < groups.length; g++) {
+            int[] group = groups[g];
+            int rank = 0;
+            for (int i = 0; i < group.length; i++) {
+                // The tile that stands in the case of that tile of the perfect grid, in our goal
+                int position = where[goalTiles[group[i] - 1]];
+                int smaller = 0;
+                for (int j = 0; j < i; j++) {
+                    if (where[goalTiles[group[j] - 1]] < position)
+                        smaller++;
+                }
+                rank = rank * (n * n - i) + position - smaller;
+            }
+            distance += tables.get(offsets[g] + rank) & 0xFF;
+        }
+        return distance;
+    }
+
+    /**
+     *
+     * @return The size of the puzzle side
+     */
+    public int getN () {
+        return n;
+    }
+
+    /**
+     *
+     * @param n            The size of the puzzle side
+     * @param partition    The sizes of the groups separated by '-', like 6-6-3, or null for the default one
+     * @return The tiles of each group, as numbered on the perfect grid
+     */
+    public static int[][] getPartition (int n, String partition) {
+        if (partition == null)
+            partition = n == 3 ? "8" : "6-6-3";
+
+        switch (n + ":" + partition) {
+            case "3:8":
+                return new int[][]{{1, 2, 3, 4, 5, 6, 7, 8}};
+            case "4:6-6-3":
+                return new int[][]{{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+            case "4:5-5-5":
+                return new int[][]{{1, 5, 6, 9, 13}, {2, 3, 4, 7, 8}, {10, 11, 12, 14, 15}};
+            default:
+                throw new IllegalArgumentException("Unknown partition " + partition + " for the size " + n +
+                        ", use 8 for 3, 6-6-3 or 5-5-5 for 4");
+        }
+    }
+
+    /**
+     * Builds the table of every group and writes them in the file of that size
+     *
+     * @param n            The size of the puzzle side
+     * @param partition    The sizes of the groups separated by '-', or null for the default one
+     * @param directory    The directory of the tables
+     * @return The file written
+     */
+    public static File generate (int n, String partition, File directory) throws IOException {
+        int[][] groups = getPartition(n, partition);
+        File file = getFile(directory, n);
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can't create the directory " + directory);
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(n);
+            output.writeInt(groups.length);
+            for (int[] group : groups) {
+                output.writeInt(group.length);
+                for (int tile : group) {
+                    output.writeInt(tile);
+                }
+            }
+            for (int[] group : groups) {
+                output.write(buildTable(n, group));
+            }
+        }
+
+        LOADED.remove(n);
+        return file;
+    }
+
+    /**
+     * Backward breadth-first search on the positions of the tiles of the group and of the empty case
+     * Moving a tile of the group costs 1, moving another one costs nothing, so each depth is first closed by
+     * the free moves, with a stack, before the moves of the group tiles give the next depth
+     *
+     * @param n        The size of the puzzle side
+     * @param group    The tiles of the group, as numbered on the perfect grid
+     * @return The table of the group, indexed by the rank of the positions of its tiles
+     */
+    private static byte[] buildTable (int n, int[] group) {
+        int cases = n * n;
+        int k = group.length;
+        int entries = (int) entries(cases, k);
+
+        // Distance of each (positions of the group, case of the empty) pair
+        byte[] depths = new byte[Math.multiplyExact(entries, cases)];
+        Arrays.fill(depths, (byte) UNKNOWN);
+
+        int[] positions = new int[k];
+        boolean[] occupied = new boolean[cases];
+        for (int i = 0; i < k; i++) {
+            positions[i] = group[i] - 1;
+            occupied[positions[i]] = true;
+        }
+        int goalRank = rank(positions, cases);
+        for (int empty = 0; empty < cases; empty++) {
+            if (!occupied[empty])
+                depths[goalRank * cases + empty] = 0;
+        }
+
+        int[][] neighbours = new int[cases][];
+        for (int index = 0; index < cases; index++) {
+            neighbours[index] = neighbours(index, n);
+        }
+
+        int[] stack = new int[1024];
+        for (int depth = 0; ; depth++) {
+            // We push every pair found at that depth, the free moves may find more of them
+            int size = 0;
+            for (int index = 0; index < depths.length; index++) {
+                if ((depths[index] & 0xFF) == depth) {
+                    if (size == stack.length)
+                        stack = Arrays.copyOf(stack, size * 2);
+                    stack[size++] = index;
+                }
+            }
+            if (size == 0)
+                break;
+
+            while (size > 0) {
+                int index = stack[--size];
+                int empty = index % cases;
+                unrank(index / cases, cases, positions);
+                Arrays.fill(occupied, false);
+                for (int position : positions) {
+                    occupied[position] = true;
+                }
+
+                for (int target : neighbours[empty]) {
+                    if (target < 0)
+                        continue;
+
+                    if (!occupied[target]) {
+                        // Another tile moves into the empty case, for free
+                        int next = index - empty + target;
+                        if ((depths[next] & 0xFF) > depth) {
+                            depths[next] = (byte) depth;
+                            if (size == stack.length)
+                                stack = Arrays.copyOf(stack, size * 2);
+                            stack[size++] = next;
+                        }
+                    } else {
+                        // A tile of the group moves into the empty case
+                        int i = indexOf(positions, target);
+                        positions[i] = empty;
+                        int next = rank(positions, cases) * cases + target;
+                        positions[i] = target;
+                        if ((depths[next] & 0xFF) > depth + 1)
+                            depths[next] = (byte) (depth + 1);
+                    }
+                }
+            }
+        }
+
+        // The value of the positions of the group is the best one over the cases of the empty
+        byte[] table = new byte[entries];
+        for (int rank = 0; rank < entries; rank++) {
+            int best = UNKNOWN;
+            for (int empty = 0; empty < cases; empty++) {
+                best = Math.min(best, depths[rank * cases + empty] & 0xFF);
+            }
+            table[rank] = (byte) best;
+        }
+        return table;
+    }
+
+    /**
+     *
+     * @param cases    The number of cases
+     * @param k        The number of tiles in the group
+     * @return The number of ways to put k distinct tiles in the cases
+     */
+    private static long entries (int cases, int k) {
+        long entries = 1;
+        for (int i = 0; i < k; i++) {
+            entries *= cases - i;
+        }
+        return entries;
+    }
+
+    /**
+     *
+     * @param positions    The distinct cases of the tiles of a group
+     * @param cases        The number of cases
+     * @return The rank of those positions, between 0 and entries(cases, k) - 1
+     */
+    private static int rank (int[] positions, int cases) {
+        int rank = 0;
+        for (int i = 0; i < positions.length; i++) {
+            int smaller = 0;
+            for (int j = 0; j < i; j++) {
+                if (positions[j] < positions[i])
+                    smaller++;
+            }
+            rank = rank * (cases - i) + positions[i] - smaller;
+        }
+        return rank;
+    }
+
+    /**
+     *
+     * @param rank         A rank given by the method rank
+     * @param cases        The number of cases
+     * @param positions    Filled with the cases of the tiles of the group
+     */
+    private static void unrank (int rank, int cases, int[] positions) {
+        int k = positions.length;
+        int[] digits = new int[k];
+        for (int i = k - 1; i >= 0; i--) {
+            digits[i] = rank % (cases - i);
+            rank /= cases - i;
+        }
+
+        boolean[] used = new boolean[cases];
+        for (int i = 0; i < k; i++) {
+            // The digit is the index of the position among the cases not used yet
+            int position = -1;
+            for (int free = digits[i]; free >= 0; ) {
+                position++;
+                if (!used[position])
+                    free--;
+            }
+            used[position] = true;
+            positions[i] = position;
+        }
+    }
+
+    /**
+     *
+     * @param index    A case
+     * @param n        The size of the puzzle side
+     * @return The cases next to it, left, up, right and down, -1 where it would leave the board
+     */
+    private static int[] neighbours (int index, int n) {
+        return new int[]{
+                index % n != 0 ? index - 1 : -1,
+                index >= n ? index - n : -1,
+                index % n != n - 1 ? index + 1 : -1,
+                index < n * (n - 1) ? index + n : -1
+        };
+    }
+
+    /**
+     *
+     * @param positions    The cases of the tiles of a group
+     * @param position     A case used by one of them
+     * @return The index of the tile at that case in the group
+     */
+    private static int indexOf (int[] positions, int position) {
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == position)
+                return i;
+        }
+        throw new IllegalStateException("no tile at " + position);
+    }
+}
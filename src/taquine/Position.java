@@ -1,3 +1,5 @@
+package taquine;
+
 /**
  * Class who get the position i and j
  */
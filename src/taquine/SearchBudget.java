@@ -0,0 +1,104 @@
+package taquine;
+
+/**
+ * Class of the limits of one search: a number of expanded states, a deadline, and a cancellation
+ *
+ * The search checks them through its metrics (see SearchMetrics.setBudget), on the thread of the search, and stops
+ * by throwing a SearchBudget.Stop. Cancelling the budget or interrupting the thread of the search stops it the same
+ * way, the next time it checks them.
+ */
+
+public class SearchBudget {
+    private final long maxExpanded;
+    private final long timeoutNanos;
+    private long deadline;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor of a budget without limits, the search can still be cancelled
+     */
+    public SearchBudget () {
+        this(0, 0);
+    }
+
+    /**
+     * Main constructor for SearchBudget
+     *
+     * @param maxExpanded      The number of states expanded after which we give up, 0 for no limit
+     * @param timeoutMillis    The time after which we give up, counted from the start of the search, 0 for no limit
+     */
+    public SearchBudget (long maxExpanded, long timeoutMillis) {
+        this.maxExpanded = maxExpanded > 0 ? maxExpanded : Long.MAX_VALUE;
+        this.timeoutNanos = timeoutMillis * 1000000;
+    }
+
+    /**
+     * Starts the clock of the deadline
+     */
+    void start () {
+        deadline = timeoutNanos > 0 ? System.nanoTime() + timeoutNanos : 0;
+    }
+
+    /**
+     * Stops the search the next time it checks its budget, from any thread
+     */
+    public void cancel () {
+        cancelled = true;
+    }
+
+    /**
+     *
+     * @return True if the search was cancelled
+     */
+    public boolean isCancelled () {
+        return cancelled;
+    }
+
+    /**
+     *
+     * @return The number of states expanded after which we give up, Long.MAX_VALUE if there is no limit
+     */
+    public long getMaxExpanded () {
+        return maxExpanded;
+    }
+
+    /**
+     * Reading the clock costs about as much as an expansion, so it is only done every few of them
+     *
+     * @param expanded    The number of states expanded so far
+     * @throws Stop if the search must stop
+     */
+    void check (long expanded) {
+        if (cancelled || Thread.currentThread().isInterrupted())
+            throw new Stop(SearchResult.Status.CANCELLED);
+        if (expanded > maxExpanded || (deadline != 0 && System.nanoTime() - deadline > 0))
+            throw new Stop(SearchResult.Status.BUDGET_EXHAUSTED);
+    }
+
+    /**
+     * Thrown through the search when it must stop, caught by SearchEngine
+     */
+    public static class Stop extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final SearchResult.Status status;
+
+        /**
+         * Main constructor for Stop, it is thrown often and caught right away, it has no stack trace
+         *
+         * @param status    Why the search stopped, BUDGET_EXHAUSTED or CANCELLED
+         */
+        Stop (SearchResult.Status status) {
+            super(status.toString(), null, false, false);
+            this.status = status;
+        }
+
+        /**
+         *
+         * @return Why the search stopped, BUDGET_EXHAUSTED or CANCELLED
+         */
+        public SearchResult.Status getStatus () {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package taquine;
+
+import java.util.function.Consumer;
+
+/**
+ * Class running one type of search, each call of solve with its own state, metrics and budget,
+ * so the same engine can be used by several threads at once
+ */
+
+public class SearchEngine {
+    private final String type;
+    private long progressMillis;
+    private Consumer<SearchMetrics> progressListener;
+    private boolean timingHeuristic;
+    private Consumer<State> listener;
+
+    /**
+     * Main constructor for SearchEngine
+     *
+     * @param type    The type of search, like in the args of Solver
+     */
+    public SearchEngine (String type) {
+        this.type = type;
+    }
+
+    /**
+     * Reports the metrics of each search while it runs, on the thread of the search, see SearchMetrics.setProgress
+     *
+     * @param intervalMillis    The minimum time between two reports
+     * @param listener          What we call with these metrics, null to stop the reports
+     */
+    public void setProgress (long intervalMillis, Consumer<SearchMetrics> listener) {
+        this.progressMillis = intervalMillis;
+        this.progressListener = listener;
+    }
+
+    /**
+     *
+     * @param timingHeuristic    If the evaluations of the heuristic are timed, see SearchMetrics.setTimingHeuristic
+     */
+    public void setTimingHeuristic (boolean timingHeuristic) {
+        this.timingHeuristic = timingHeuristic;
+    }
+
+    /**
+     *
+     * @param listener    What the anytime searches call with each better path, or null
+     */
+    public void setListener (Consumer<State> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     *
+     * @return The type of search, like in the args of Solver
+     */
+    public String getType () {
+        return type;
+    }
+
+    /**
+     *
+     * @param initialState    The initial state of our puzzle, its goalState must be set
+     * @param goalState       The goal state of our puzzle
+     * @param budget          The limits of that search, it can be cancelled through it
+     * @return The result of the search
+     * @throws IllegalArgumentException if the type of search is invalid or doesn't support that puzzle
+     */
+    public SearchResult solve (State initialState, State goalState, SearchBudget budget) {
+        SearchMetrics metrics = new SearchMetrics();
+        if (progressListener != null)
+            metrics.setProgress(progressMillis, progressListener);
+        metrics.setTimingHeuristic(timingHeuristic);
+        metrics.setBudget(budget);
+
+        // The depth-first and anytime searches would run until their budget on a puzzle without solution
+        if (!initialState.isSolvable()) {
+            metrics.start(type, initialState.getN());
+            metrics.stop();
+            return new SearchResult(SearchResult.Status.UNSOLVABLE, null, metrics);
+        }
+
+        try {
+            State finishedState = Solver.solve(type, initialState, goalState, metrics, listener);
+            // The other searches give up on the limits of their own engine, with no state or a state on the way
+            if (finishedState != null && finishedState.equals(goalState))
+                return new SearchResult(metrics.isBudgetLimited() ? SearchResult.Status.BUDGET_LIMITED : SearchResult.Status.SOLVED,
+                        finishedState, metrics);
+            return new SearchResult(SearchResult.Status.BUDGET_EXHAUSTED, null, metrics);
+        } catch (SearchBudget.Stop e) {
+            // The anytime searches return their best path instead, only the others get here
+            return new SearchResult(e.getStatus(), null, metrics);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package taquine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the searches, committed by SearchMetrics
+ *
+ * They cost nothing when no recording is running, record them with -XX:StartFlightRecording
+ * and read them with: jfr print --categories Taquine recording.jfr
+ */
+
+final class SearchEvents {
+
+    private SearchEvents () {
+    }
+
+    @Name("taquine.SearchStart")
+    @Label("Search Start")
+    @Category("Taquine")
+    @Description("A search starts")
+    @StackTrace(false)
+    static class Start extends Event {
+        @Label("Type")
+        String type;
+
+        @Label("Size")
+        int size;
+    }
+
+    @Name("taquine.SearchIteration")
+    @Label("Search Iteration")
+    @Category("Taquine")
+    @Description("A depth of a breadth-first search, or a bound on f of A* and IDA*")
+    @StackTrace(false)
+    static class Iteration extends Event {
+        @Label("Type")
+        String type;
+
+        @Label("Bound")
+        int bound;
+
+        @Label("Expanded")
+        long expanded;
+
+        @Label("Generated")
+        long generated;
+
+        @Label("Open")
+        long open;
+    }
+
+    @Name("taquine.SearchEnd")
+    @Label("Search End")
+    @Category("Taquine")
+    @Description("A search ends, the event lasts the whole search")
+    @StackTrace(false)
+    static class End extends Event {
+        @Label("Type")
+        String type;
+
+        @Label("Size")
+        int size;
+
+        @Label("Cost")
+        @Description("The cost of the state found, -1 if there is none")
+        int cost;
+
+        @Label("Expanded")
+        long expanded;
+
+        @Label("Generated")
+        long generated;
+
+        @Label("Duplicates")
+        long duplicates;
+
+        @Label("Peak Open")
+        long peakOpen;
+
+        @Label("Peak Closed")
+        long peakClosed;
+
+        @Label("Heuristic Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long heuristicTime;
+    }
+}
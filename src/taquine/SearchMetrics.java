@@ -0,0 +1,438 @@
+package taquine;
+
+import java.util.function.Consumer;
+
+/**
+ * Class holding the counters of one search, so several searches can run in the same process
+ *
+ * A search updates its metrics from a single thread, the parallel ones add the counts of their workers
+ * once a depth is done. The progress listener is called from the search itself, every PROGRESS_CHECK
+ * expansions at most, so the counters it reads are always consistent. The start, each iteration and the
+ * end of the search are also committed as Java Flight Recorder events, see SearchEvents.
+ * The budget of the search is checked in the same way, every BUDGET_CHECK expansions, see SearchBudget.
+ */
+
+public class SearchMetrics {
+    private static final long PROGRESS_CHECK = 1 << 14;
+    private static final long BUDGET_CHECK = 1 << 10;
+
+    private String type = "";
+    private int size;
+
+    private long expanded;
+    private long generated;
+    private long duplicates;
+    private long open;
+    private long peakOpen;
+    private long peakClosed;
+    private long peakMemory;
+    private long heuristicTime;
+    private boolean timingHeuristic;
+
+    private int iterations;
+    private int bound = -1;
+    private long iterationExpanded;
+    private long iterationGenerated;
+
+    private long startTime;
+    private long endTime;
+
+    private Consumer<SearchMetrics> listener;
+    private long progressInterval;
+    private long nextProgress;
+
+    private SearchBudget budget;
+    private long maxExpanded = Long.MAX_VALUE;
+    private boolean budgetLimited;
+
+    private SearchEvents.End endEvent;
+    private SearchEvents.Iteration iterationEvent;
+
+    /**
+     * Starts the clock of the search
+     */
+    public void start () {
+        start("", 0);
+    }
+
+    /**
+     * Starts the clock of the search
+     *
+     * @param type    The type of search, like in the args of main, for the events
+     * @param size    The size of the puzzle side
+     */
+    public void start (String type, int size) {
+        this.type = type;
+        this.size = size;
+
+        SearchEvents.Start startEvent = new SearchEvents.Start();
+        if (startEvent.shouldCommit()) {
+            startEvent.type = type;
+            startEvent.size = size;
+            startEvent.commit();
+        }
+        endEvent = new SearchEvents.End();
+        endEvent.begin();
+
+        startTime = System.nanoTime();
+        endTime = 0;
+        nextProgress = startTime + progressInterval;
+        if (budget != null)
+            budget.start();
+    }
+
+    /**
+     * Stops the clock of the search
+     */
+    public void stop () {
+        stop(-1);
+    }
+
+    /**
+     * Stops the clock of the search
+     *
+     * @param cost    The cost of the state found by the search, -1 if there is none
+     */
+    public void stop (int cost) {
+        endTime = System.nanoTime();
+        sampleMemory();
+        endIteration();
+
+        if (endEvent != null && endEvent.shouldCommit()) {
+            endEvent.end();
+            endEvent.type = type;
+            endEvent.size = size;
+            endEvent.cost = cost;
+            endEvent.expanded = expanded;
+            endEvent.generated = generated;
+            endEvent.duplicates = duplicates;
+            endEvent.peakOpen = peakOpen;
+            endEvent.peakClosed = peakClosed;
+            endEvent.heuristicTime = heuristicTime;
+            endEvent.commit();
+        }
+        endEvent = null;
+    }
+
+    /**
+     * Reports the metrics while the search runs, on the thread of the search
+     *
+     * @param intervalMillis    The minimum time between two reports
+     * @param listener          What we call with these metrics, null to stop the reports
+     */
+    public void setProgress (long intervalMillis, Consumer<SearchMetrics> listener) {
+        this.listener = listener;
+        this.progressInterval = intervalMillis * 1000000;
+        this.nextProgress = System.nanoTime() + progressInterval;
+    }
+
+    /**
+     * Measuring each evaluation of the heuristic costs about as much as the cheapest heuristics, so it is optional
+     *
+     * @param timingHeuristic    If the evaluations done through this object are timed
+     */
+    public void setTimingHeuristic (boolean timingHeuristic) {
+        this.timingHeuristic = timingHeuristic;
+    }
+
+    /**
+     * The search is stopped by its budget when it expands a state, so it is always in a consistent state
+     *
+     * @param budget    The limits of the search, set before it starts, or null for none
+     */
+    public void setBudget (SearchBudget budget) {
+        this.budget = budget;
+        this.maxExpanded = budget != null ? budget.getMaxExpanded() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Set by the searches that keep improving a path, when their budget ran out before they proved it the shortest
+     *
+     * @param budgetLimited    If the path found is only the best one within the budget
+     */
+    public void setBudgetLimited (boolean budgetLimited) {
+        this.budgetLimited = budgetLimited;
+    }
+
+    /**
+     *
+     * @return True if the path found is only the best one within the budget, see setBudgetLimited
+     */
+    public boolean isBudgetLimited () {
+        return budgetLimited;
+    }
+
+    /**
+     * Counts one more state expanded
+     *
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    public void addExpanded () {
+        expanded++;
+        if (expanded > maxExpanded || (expanded & (BUDGET_CHECK - 1)) == 0) {
+            if (budget != null)
+                budget.check(expanded);
+            if (listener != null && (expanded & (PROGRESS_CHECK - 1)) == 0)
+                progress();
+        }
+    }
+
+    /**
+     *
+     * @param states    The number of states a search engine expanded on its own
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    public void addExpanded (long states) {
+        expanded += states;
+        if (budget != null)
+            budget.check(expanded);
+        if (listener != null)
+            progress();
+    }
+
+    /**
+     * Checks the budget without expanding a state, for the searches with long steps between two expansions
+     *
+     * @throws SearchBudget.Stop if the budget of the search ran out or if it was cancelled
+     */
+    public void checkBudget () {
+        if (budget != null)
+            budget.check(expanded);
+    }
+
+    /**
+     * Counts one more state generated, a successor of an expanded state
+     */
+    public void addGenerated () {
+        generated++;
+    }
+
+    /**
+     *
+     * @param states    The number of states a search engine generated on its own
+     */
+    public void addGenerated (long states) {
+        generated += states;
+    }
+
+    /**
+     * Counts one more successor dropped because its board was already reached at a lower or equal cost
+     */
+    public void addDuplicate () {
+        duplicates++;
+    }
+
+    /**
+     *
+     * @param states    The number of successors a search engine dropped on its own
+     */
+    public void addDuplicates (long states) {
+        duplicates += states;
+    }
+
+    /**
+     *
+     * @param size    The current number of states waiting to be expanded
+     */
+    public void updateOpen (long size) {
+        open = size;
+        if (size > peakOpen)
+            peakOpen = size;
+    }
+
+    /**
+     *
+     * @param size    The current number of boards already visited
+     */
+    public void updateClosed (long size) {
+        if (size > peakClosed)
+            peakClosed = size;
+    }
+
+    /**
+     * Starts a new iteration, a depth of a breadth-first search or a bound on f of A* and IDA*,
+     * the previous one is committed as an event
+     *
+     * @param bound    The depth or the bound on f of the iteration
+     */
+    public void startIteration (int bound) {
+        endIteration();
+
+        this.bound = bound;
+        iterations++;
+        iterationExpanded = expanded;
+        iterationGenerated = generated;
+
+        iterationEvent = new SearchEvents.Iteration();
+        iterationEvent.begin();
+    }
+
+    /**
+     * Commits the event of the current iteration, if there is one
+     */
+    private void endIteration () {
+        if (iterationEvent != null && iterationEvent.shouldCommit()) {
+            iterationEvent.end();
+            iterationEvent.type = type;
+            iterationEvent.bound = bound;
+            iterationEvent.expanded = expanded - iterationExpanded;
+            iterationEvent.generated = generated - iterationGenerated;
+            iterationEvent.open = open;
+            iterationEvent.commit();
+        }
+        iterationEvent = null;
+    }
+
+    /**
+     *
+     * @param heuristic    The heuristic we evaluate
+     * @param state        The state evaluated
+     * @return The value of the heuristic, timed if we measure the heuristics
+     */
+    public int evaluate (Heuristic heuristic, State state) {
+        if (!timingHeuristic)
+            return heuristic.evaluate(state);
+
+        long start = System.nanoTime();
+        int value = heuristic.evaluate(state);
+        heuristicTime += System.nanoTime() - start;
+        return value;
+    }
+
+    /**
+     *
+     * @param heuristic    The heuristic we evaluate
+     * @param board        The board evaluated
+     * @return The value of the heuristic, timed if we measure the heuristics
+     */
+    public int evaluate (Heuristic heuristic, Board board) {
+        if (!timingHeuristic)
+            return heuristic.evaluate(board);
+
+        long start = System.nanoTime();
+        int value = heuristic.evaluate(board);
+        heuristicTime += System.nanoTime() - start;
+        return value;
+    }
+
+    /**
+     * Calls the listener if its interval elapsed
+     */
+    private void progress () {
+        long now = System.nanoTime();
+        if (now < nextProgress)
+            return;
+
+        nextProgress = now + progressInterval;
+        sampleMemory();
+        listener.accept(this);
+    }
+
+    /**
+     * The heap is only measured at the reports and at the end, it is a lower bound of its real peak
+     */
+    private void sampleMemory () {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        if (used > peakMemory)
+            peakMemory = used;
+    }
+
+    /**
+     *
+     * @return The number of states expanded
+     */
+    public long getExpanded () {
+        return expanded;
+    }
+
+    /**
+     *
+     * @return The number of successors generated
+     */
+    public long getGenerated () {
+        return generated;
+    }
+
+    /**
+     *
+     * @return The number of successors dropped because their board was already reached
+     */
+    public long getDuplicates () {
+        return duplicates;
+    }
+
+    /**
+     *
+     * @return The largest number of states waiting to be expanded at once
+     */
+    public long getPeakOpen () {
+        return peakOpen;
+    }
+
+    /**
+     *
+     * @return The largest number of boards kept as visited at once
+     */
+    public long getPeakClosed () {
+        return peakClosed;
+    }
+
+    /**
+     *
+     * @return The largest used heap measured, in bytes
+     */
+    public long getPeakMemory () {
+        return peakMemory;
+    }
+
+    /**
+     *
+     * @return The number of iterations started, see startIteration
+     */
+    public int getIterations () {
+        return iterations;
+    }
+
+    /**
+     *
+     * @return The depth or the bound on f of the current iteration, -1 if the search has none
+     */
+    public int getBound () {
+        return bound;
+    }
+
+    /**
+     *
+     * @return The time spent evaluating the heuristic, 0 if we don't measure it, see setTimingHeuristic
+     */
+    public double getHeuristicSeconds () {
+        return heuristicTime / Math.pow(10, 9);
+    }
+
+    /**
+     *
+     * @return The number of states expanded per second since the start
+     */
+    public double getExpansionsPerSecond () {
+        double seconds = getSeconds();
+        return seconds > 0 ? expanded / seconds : 0;
+    }
+
+    /**
+     *
+     * @return The time spent between start and stop, or until now if the search is still running
+     */
+    public double getSeconds () {
+        long end = endTime != 0 ? endTime : System.nanoTime();
+        return (end - startTime) / Math.pow(10, 9);
+    }
+
+    @Override
+    public String toString () {
+        return String.format("%.1f s, %d expanded, %d generated, %d duplicates, %d open (peak %d), peak closed %d, "
+                        + "bound %d, %.0f expansions/s, %.3f s in the heuristic, %d MB of heap",
+                getSeconds(), expanded, generated, duplicates, open, peakOpen, peakClosed,
+                bound, getExpansionsPerSecond(), getHeuristicSeconds(), peakMemory >> 20);
+    }
+}
@@ -0,0 +1,77 @@
+package taquine;
+
+/**
+ * Class of the outcome of one search of a SearchEngine
+ */
+
+public class SearchResult {
+    /**
+     * Enum of the ways a search ends
+     */
+    public enum Status {
+        /** The goal was reached, see getState */
+        SOLVED,
+        /** The goal was reached, but the budget ran out before the path was proven the shortest, see getState */
+        BUDGET_LIMITED,
+        /** The goal can't be reached from the initial state */
+        UNSOLVABLE,
+        /** The search gave up on its budget, or on the limits of its own engine, before reaching the goal */
+        BUDGET_EXHAUSTED,
+        /** The search was cancelled, through its budget or by interrupting its thread */
+        CANCELLED
+    }
+
+    private final Status status;
+    private final State state;
+    private final SearchMetrics metrics;
+
+    /**
+     * Main constructor for SearchResult
+     *
+     * @param status     How the search ended
+     * @param state      The goal state reached, with its parents back to the initial state, null unless solved
+     * @param metrics    The metrics of the search, stopped
+     */
+    public SearchResult (Status status, State state, SearchMetrics metrics) {
+        this.status = status;
+        this.state = state;
+        this.metrics = metrics;
+    }
+
+    /**
+     *
+     * @return How the search ended
+     */
+    public Status getStatus () {
+        return status;
+    }
+
+    /**
+     *
+     * @return True if the goal was reached, the path being the shortest or only the best one within the budget
+     */
+    public boolean isSolved () {
+        return status == Status.SOLVED || status == Status.BUDGET_LIMITED;
+    }
+
+    /**
+     *
+     * @return The goal state reached, with its parents back to the initial state, null unless solved
+     */
+    public State getState () {
+        return state;
+    }
+
+    /**
+     *
+     * @return The metrics of the search
+     */
+    public SearchMetrics getMetrics () {
+        return metrics;
+    }
+
+    @Override
+    public String toString () {
+        return status + (state != null ? " in " + state.getCost() + " moves" : "") + ", " + metrics;
+    }
+}
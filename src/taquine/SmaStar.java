@@ -0,0 +1,221 @@
+package taquine;
+
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Class implementing the simplified memory-bounded A* search (SMA*), for the heaps too small for A*
+ *
+ * Like A*, the leaf of lowest f = cost + heuristic is expanded first, the deepest one on a tie. But the tree kept
+ * never holds more than maxNodes nodes: beyond it the worst leaf, of highest f and the shallowest on a tie, is
+ * dropped, and its f is backed up into its parent, which goes back to the open leaves with the lowest f of its
+ * dropped children. Expanding it again only generates the children it lost. A child's f is at least the f of its
+ * parent, so the f of a node is a lower bound of any path through it, and the first goal expanded is on the
+ * shortest path, as long as that path fits in maxNodes nodes.
+ *
+ * The search is on a tree, the boards are not checked against the others: the MovePruner rejects the moves ending
+ * a redundant sequence, starting with the one undoing the last move, the shortest paths being kept.
+ * The memory is only the nodes kept, of any size of board, but the dropped subtrees are searched again when their
+ * parent comes back, more often as maxNodes gets smaller.
+ */
+
+public class SmaStar {
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private final State initialState;
+    private final State goalState;
+    private final Heuristic heuristic;
+    private final MovePruner pruner;
+    private final SearchMetrics metrics;
+    private final long maxNodes;
+    // The leaves and the nodes that lost children, the best first and the worst last
+    private final TreeSet<Node> open = new TreeSet<>();
+    private long nodes;
+    private long created;
+
+    /**
+     * Main constructor for SmaStar
+     *
+     * @param initialState    The initial state of our puzzle, with its goal state set
+     * @param goalState       The goal state of our puzzle
+     * @param heuristic       The heuristic we use, it must never overestimate to get the shortest path
+     * @param pruner          The automaton of the redundant sequences of moves
+     * @param maxNodes        The number of nodes the tree may keep, at least 2
+     * @param metrics         The metrics of the search, each f of the best leaf is an iteration
+     */
+    public SmaStar (State initialState, State goalState, Heuristic heuristic, MovePruner pruner, long maxNodes,
+                    SearchMetrics metrics) {
+        if (maxNodes < 2)
+            throw new IllegalArgumentException("The memory-bounded search needs at least 2 nodes");
+        this.initialState = initialState;
+        this.goalState = goalState;
+        this.heuristic = heuristic;
+        this.pruner = pruner;
+        this.maxNodes = maxNodes;
+        this.metrics = metrics;
+    }
+
+    /**
+     *
+     * @return The moves of the empty case of the shortest path, see Board.MOVE_NAMES, or null if there is no
+     *         solution or if the shortest path doesn't fit in maxNodes nodes
+     */
+    public byte[] solve () {
+        Node root = new Node(initialState, null, MovePruner.START, metrics.evaluate(heuristic, initialState));
+        open.add(root);
+        nodes = 1;
+
+        while (!open.isEmpty()) {
+            Node best = open.first();
+            // Every path left is too long for the memory, or leads nowhere
+            if (best.f == INFINITE)
+                return null;
+
+            metrics.addExpanded();
+            metrics.updateOpen(open.size());
+            if (best.f > metrics.getBound())
+                metrics.startIteration(best.f);
+
+            if (best.state.equals(goalState))
+                return moves(best);
+
+            expand(best);
+            metrics.updateClosed(nodes);
+        }
+
+        return null;
+    }
+
+    /**
+     * Generates the children a node doesn't have, dropping the worst leaves to make room for them
+     *
+     * @param node    The best node of open
+     */
+    private void expand (Node node) {
+        open.remove(node);
+        // The f of the node bounds the children it generates, the dropped ones had at least that f
+        int bound = node.f;
+        node.forgotten = INFINITE;
+
+        for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+            int next = pruner.next(node.prunerState, move);
+            if (next < 0 || (node.children & (1 << move)) != 0)
+                continue;
+            State successor = node.state.move(move);
+            if (successor == null)
+                continue;
+            metrics.addGenerated();
+
+            // A path longer than the memory can't be kept whole, that child is a dead end
+            if (successor.getCost() >= maxNodes - 1)
+                continue;
+
+            while (nodes >= maxNodes) {
+                if (!dropWorst(node))
+                    break;
+            }
+            int f = Math.max(bound, successor.getCost() + metrics.evaluate(heuristic, successor));
+            if (nodes >= maxNodes) {
+                // Only the path to this node is left, the child is forgotten at once
+                node.forgotten = Math.min(node.forgotten, f);
+                continue;
+            }
+
+            successor.detach();
+            node.children |= 1 << move;
+            node.count++;
+            nodes++;
+            open.add(new Node(successor, node, next, f));
+        }
+
+        // The node stays in open while it misses children, with the best f they had, a leaf without any is a dead end
+        if (node.forgotten != INFINITE || node.count == 0) {
+            node.f = node.forgotten;
+            open.add(node);
+        }
+    }
+
+    /**
+     * The f of the leaf dropped is backed up into its parent, which goes back to open to generate it again
+     *
+     * @param expanding    The node we expand, it is not dropped, it goes back to open at the end of its expansion
+     * @return False if there is no leaf left to drop
+     */
+    private boolean dropWorst (Node expanding) {
+        Iterator<Node> worst = open.descendingIterator();
+        while (worst.hasNext()) {
+            Node leaf = worst.next();
+            if (leaf.count != 0 || leaf.parent == null)
+                continue;
+
+            worst.remove();
+            nodes--;
+
+            Node parent = leaf.parent;
+            if (parent != expanding)
+                open.remove(parent);
+            parent.children &= ~(1 << leaf.state.getLastMove());
+            parent.count--;
+            parent.forgotten = Math.min(parent.forgotten, leaf.f);
+            if (parent != expanding && (parent.forgotten != INFINITE || parent.count == 0)) {
+                parent.f = parent.forgotten;
+                open.add(parent);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param node    The goal node
+     * @return The moves of the empty case from the root to that node
+     */
+    private static byte[] moves (Node node) {
+        byte[] moves = new byte[node.state.getCost()];
+        for (Node current = node; current.parent != null; current = current.parent) {
+            moves[current.state.getCost() - 1] = (byte) current.state.getLastMove();
+        }
+        return moves;
+    }
+
+    /**
+     * A node of the tree kept, ordered by f, then the deepest first, then the oldest first
+     */
+    private final class Node implements Comparable<Node> {
+        private final State state;
+        private final Node parent;
+        private final int prunerState;
+        private final long id;
+        private int f;
+        // The moves of the children kept, one bit each, and their number
+        private int children;
+        private int count;
+        // The lowest f of the children dropped, INFINITE if none is missing
+        private int forgotten = INFINITE;
+
+        /**
+         *
+         * @param state          The board of the node, detached from its parent
+         * @param parent         The node it was generated from, null for the root
+         * @param prunerState    The state of the pruner after the moves that led to it
+         * @param f              The lower bound of the cost of a path through it
+         */
+        private Node (State state, Node parent, int prunerState, int f) {
+            this.state = state;
+            this.parent = parent;
+            this.prunerState = prunerState;
+            this.id = created++;
+            this.f = f;
+        }
+
+        @Override
+        public int compareTo (Node other) {
+            if (f != other.f)
+                return Integer.compare(f, other.f);
+            if (state.getCost() != other.state.getCost())
+                return Integer.compare(other.state.getCost(), state.getCost());
+            return Long.compare(id, other.id);
+        }
+    }
+}
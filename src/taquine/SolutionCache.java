@@ -0,0 +1,247 @@
+package taquine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class keeping the shortest paths already found, the least recently used ones being dropped first
+ *
+ * A path is kept for the pair of the initial and the goal boards, once both are relabeled for the goal, see
+ * PackedBoard.relabel: two pairs differing only by the names of the tiles share the same entry, whatever their goal.
+ * The moves of the empty case are the same for the relabeled boards, so they are kept as they were found.
+ * Only the packed boards are kept, up to MAX_PACKED_SIZE.
+ *
+ * The paths can be written in a file, one per line: the size, the case of the empty in the goal, the relabeled
+ * initial board in hexadecimal and the moves (see Board.MOVE_NAMES), separated by spaces.
+ */
+
+public class SolutionCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, byte[]> paths;
+    private long hits;
+    private long misses;
+
+    /**
+     * Main constructor for SolutionCache
+     *
+     * @param capacity    The number of paths kept, the least recently used ones are dropped beyond it
+     */
+    public SolutionCache (int capacity) {
+        this.capacity = capacity;
+        this.paths = new LinkedHashMap<Key, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Key, byte[]> eldest) {
+                return size() > SolutionCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState       The goal state of our puzzle
+     * @return The moves of the empty case of the shortest path kept for that puzzle, or null if there is none
+     */
+    public synchronized byte[] get (State initialState, State goalState) {
+        Key key = Key.of(initialState, goalState);
+        byte[] moves = key == null ? null : paths.get(key);
+        if (moves == null)
+            misses++;
+        else
+            hits++;
+        return moves;
+    }
+
+    /**
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState       The goal state of our puzzle
+     * @param moves           The moves of the empty case of a shortest path from the initialState to the goalState
+     */
+    public synchronized void put (State initialState, State goalState, byte[] moves) {
+        Key key = Key.of(initialState, goalState);
+        if (key != null)
+            paths.put(key, moves);
+    }
+
+    /**
+     * Drops the path of a puzzle that turned out not to reach its goal, its lookup counts as a miss
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState       The goal state of our puzzle
+     */
+    public synchronized void evict (State initialState, State goalState) {
+        Key key = Key.of(initialState, goalState);
+        if (key != null && paths.remove(key) != null) {
+            hits--;
+            misses++;
+        }
+    }
+
+    /**
+     *
+     * @return The number of paths kept
+     */
+    public synchronized int size () {
+        return paths.size();
+    }
+
+    /**
+     * Adds the paths of a file written by save, the lines that can't be read are skipped, and so are the paths
+     * that leave the board or don't end on the goal
+     *
+     * @param file    The file of the paths
+     * @return The number of paths read
+     */
+    public int load (File file) throws IOException {
+        int loaded = 0;
+        try (BufferedReader input = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = input.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 4)
+                    continue;
+                try {
+                    byte[] moves = new byte[parts[3].equals("-") ? 0 : parts[3].length()];
+                    for (int i = 0; i < moves.length; i++) {
+                        moves[i] = (byte) Board.MOVE_NAMES.indexOf(parts[3].charAt(i));
+                        if (moves[i] < 0)
+                            throw new NumberFormatException("Unknown move " + parts[3].charAt(i));
+                    }
+                    Key key = new Key(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Long.parseUnsignedLong(parts[2], 16));
+                    if (!key.reaches(moves))
+                        continue;
+                    synchronized (this) {
+                        paths.put(key, moves);
+                    }
+                    loaded++;
+                } catch (IllegalArgumentException e) {
+                    // A line of another version, or edited by hand
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes every path, the least recently used first so that loading them again keeps their order
+     *
+     * @param file    The file of the paths, replaced once completely written
+     */
+    public void save (File file) throws IOException {
+        ArrayList<Map.Entry<Key, byte[]>> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(paths.entrySet());
+        }
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try (BufferedWriter output = new BufferedWriter(new FileWriter(temporary))) {
+            for (Map.Entry<Key, byte[]> entry : entries) {
+                Key key = entry.getKey();
+                StringBuilder moves = new StringBuilder();
+                for (byte move : entry.getValue()) {
+                    moves.append(Board.MOVE_NAMES.charAt(move));
+                }
+                output.write(key.n + " " + key.goalEmpty + " " + Long.toHexString(key.board) + " " +
+                        (moves.length() == 0 ? "-" : moves) + "\n");
+            }
+        }
+        if (!temporary.renameTo(file))
+            throw new IOException("Can't replace " + file);
+    }
+
+    /**
+     *
+     * @return The number of paths kept and of searches answered or not from them
+     */
+    @Override
+    public synchronized String toString () {
+        return paths.size() + " paths, " + hits + " hits, " + misses + " misses";
+    }
+
+    /**
+     * The pair of boards once relabeled for the goal: the goal is then known from its size and the case of its empty
+     */
+    private static final class Key {
+        private final int n;
+        private final int goalEmpty;
+        private final long board;
+
+        /**
+         * Main constructor for Key
+         *
+         * @param n            The size of the puzzle side
+         * @param goalEmpty    The case of the empty in the goal
+         * @param board        The packed initial board, relabeled for the goal
+         */
+        private Key (int n, int goalEmpty, long board) {
+            this.n = n;
+            this.goalEmpty = goalEmpty;
+            this.board = board;
+        }
+
+        /**
+         *
+         * @param initialState    The initial state of our puzzle
+         * @param goalState       The goal state of our puzzle
+         * @return The key of that puzzle, or null if its boards are not packed
+         */
+        private static Key of (State initialState, State goalState) {
+            int n = initialState.getN();
+            if (n > State.MAX_PACKED_SIZE)
+                return null;
+            return new Key(n, goalState.getIndexOfEmpty(), PackedBoard.relabel(initialState.getBoard(), goalState.getBoard(), n));
+        }
+
+        /**
+         *
+         * @param moves    The moves of the empty case of a path from the board of this key
+         * @return True if every move stays on the board and the path ends on the goal, the perfect grid with its
+         *         empty case at goalEmpty
+         * @throws IllegalArgumentException if the board has no empty case
+         */
+        private boolean reaches (byte[] moves) {
+            if (n < 2 || n > State.MAX_PACKED_SIZE || goalEmpty < 0 || goalEmpty >= n * n)
+                return false;
+
+            long current = board;
+            int empty = PackedBoard.indexOfEmpty(current, n);
+            for (byte move : moves) {
+                int target = PackedBoard.target(empty, n, move);
+                if (target < 0)
+                    return false;
+                current = PackedBoard.move(current, empty, target);
+                empty = target;
+            }
+
+            // The goal relabeled, see PackedBoard.relabel, a nibble per tile
+            long goal = 0;
+            int label = 1;
+            for (int k = 0; k < n * n; k++) {
+                if (k != goalEmpty)
+                    goal |= (long) label++ << (k * 4);
+            }
+            return current == goal;
+        }
+
+        @Override
+        public boolean equals (Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return n == other.n && goalEmpty == other.goalEmpty && board == other.board;
+        }
+
+        @Override
+        public int hashCode () {
+            return Long.hashCode(board * 0x9E3779B97F4A7C15L) ^ (n << 4 | goalEmpty);
+        }
+    }
+}
@@ -0,0 +1,1122 @@
+package taquine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Class who contains the "main"
+ * Solver who contains all of the algorithms of research
+ */
+
+public class Solver {
+    private static final int MAX_TENT = 1000000;
+    private static final int MAX_PARALLEL_STATES = 50 * MAX_TENT;
+    private static final int MAX_ANYTIME_STATES = 5 * MAX_TENT;
+    private static final int MAX_SMA_NODES = MAX_TENT;
+    private static final int ANYTIME_BUDGET = 10;
+    private static final int EXTERNAL_BUFFER = 1 << 22;
+    private static final int SERVER_BUDGET = 10;
+    private static final String PROGRESS = "taquine.progress";
+    private static final String TIME_HEURISTIC = "taquine.timeHeuristic";
+    private static final String BUDGET = "taquine.budget";
+    private static final String MAX_STATES = "taquine.maxStates";
+    private static final String MAX_NODES = "taquine.maxNodes";
+    private static final String PRUNE_DEPTH = "taquine.pruneDepth";
+    private static final int DEFAULT_PRUNE_DEPTH = 8;
+    private static final String CACHE = "taquine.cache";
+    private static final String CACHE_FILE = "taquine.cacheFile";
+
+    private static SolutionCache cache;
+
+    public static void main (String[] args) {
+        if (args.length >= 2 && args[0].equals("generate-pdb")){
+            generatePatternDatabase(args);
+            return;
+        }
+
+        if (args.length >= 1 && args[0].equals("generate-oracle")){
+            generateDistanceOracle();
+            return;
+        }
+
+        if (args.length >= 4 && args[0].equals("batch")){
+            solveBatch(args);
+            return;
+        }
+
+        if (args.length >= 2 && args[0].equals("serve")){
+            serve(args);
+            return;
+        }
+
+        if (args.length >= 3 && args[0].equals("histogram")){
+            printHistogram(args);
+            return;
+        }
+
+        if (args.length < 3){
+            System.out.println("Use the program with these args");
+            System.out.println("<Search type> <Initial State> <Size> <Goal State>");
+            System.out.println();
+            System.out.print("\t");
+            System.out.println("<Search type>: blind, cachedBlind, parallelBlind (on all the cores), bidirectionalBlind, " +
+                    "externalBlind (keeping the depths on disk, in " + ExternalBfs.DIRECTORY + ", set with -Dtaquine.bfs.dir), " +
+                    "oracle (for 3, reading the shortest path in a table of the exact distances built once in " +
+                    DistanceOracle.DIRECTORY + ", set with -Dtaquine.oracle.dir), or <engine>-<heuristic> with <engine>: greedy, astar, ida, parallelIda (on all the cores), sma, anytime " +
+                    "and <heuristic>: manhattan, misplaced, linear-conflict, walking-distance, pdb (greedy ones are fast, astar and ida ones give the " +
+                    "shortest path, ida ones in a memory bounded by its length, sma ones in a memory bounded by a number of states, anytime ones print better and better paths until their budget runs out, " +
+                    "manhattan and misplaced alone are the greedy ones, pdb needs the tables built by generate-pdb)");
+            System.out.print("\t");
+            System.out.println("<Initial State>: Write the cases from top to bottom, left to right, first one top left, " +
+                    "last one bottom right, 0 for the empty, separated by '-' or use 'RANDOM'");
+            System.out.print("\t");
+            System.out.println("<Size>: 3 or 4 -> Depends of what you want, 5 and more for the anytime searches " +
+                    "with manhattan, misplaced or linear-conflict");
+            System.out.print("\t");
+            System.out.println("<Goal State>: Same as <Initial State> but you can use GOAL " +
+                    "to set the goal state as the perfect goal state for that size");
+            System.out.println();
+            System.out.println("Or build the pattern database tables with these args");
+            System.out.println("generate-pdb <Size> <Partition>");
+            System.out.println();
+            System.out.print("\t");
+            System.out.println("<Partition>: Optional, 8 for 3, 6-6-3 (default) or 5-5-5 for 4, the tables are written " +
+                    "in the directory " + PatternDatabase.DIRECTORY + ", set with -Dtaquine.pdb.dir");
+            System.out.println();
+            System.out.println("Or build the exact distance table of the size 3, used by the oracle search, with these args");
+            System.out.println("generate-oracle");
+            System.out.println();
+            System.out.println("Or solve many puzzles in one run with these args");
+            System.out.println("batch <Search type> <Size> <Input> <Threads> <Output>");
+            System.out.println();
+            System.out.print("\t");
+            System.out.println("<Input>: A file with one puzzle per line, '<Initial State>' or '<Initial State> <Goal State>', " +
+                    "or '-' for the standard input");
+            System.out.print("\t");
+            System.out.println("<Threads>: Optional, the number of puzzles solved at the same time, the number of cores by default");
+            System.out.print("\t");
+            System.out.println("<Output>: Optional, a file for one line per puzzle: line, OK, BEST (anytime ones out of budget) or UNSOLVED, moves, cost, states, " +
+                    "seconds, the standard output by default");
+            System.out.println();
+            System.out.println("Or keep solving the requests of a local socket, one per line, with these args");
+            System.out.println("serve <Address> <Searches> <Seconds>");
+            System.out.println();
+            System.out.print("\t");
+            System.out.println("<Address>: A port of the loopback interface or the path of a Unix domain socket, " +
+                    "a request is '<Search type> <Size> <Initial State> <Goal State> <Seconds>', the last two optional, " +
+                    "and gets the line of a batch, UNSOLVED past its budget, or BUSY");
+            System.out.print("\t");
+            System.out.println("<Searches>: Optional, the number of searches running at the same time, the number of cores by default");
+            System.out.print("\t");
+            System.out.println("<Seconds>: Optional, the longest budget of a request, " + SERVER_BUDGET + " by default");
+            System.out.println();
+            System.out.println("Or count the boards at each distance of a state, keeping the depths on disk, with these args");
+            System.out.println("histogram <Size> <Initial State> <MaxDepth>");
+            System.out.println();
+            System.out.print("\t");
+            System.out.println("<MaxDepth>: Optional, the last distance counted, all of them by default");
+            System.out.println();
+            System.out.println("Set -D" + PROGRESS + "=<Seconds> to report the metrics of a search while it runs, and -D" +
+                    TIME_HEURISTIC + "=true to measure the time spent in the heuristic. The searches are also recorded as " +
+                    "Java Flight Recorder events with -XX:StartFlightRecording");
+            System.out.println("The anytime searches stop after -D" + BUDGET + "=<Seconds> (" + ANYTIME_BUDGET + " by default) " +
+                    "or -D" + MAX_STATES + "=<States> kept by a search (" + MAX_ANYTIME_STATES + " by default)");
+            System.out.println("The ida, parallelIda and sma searches skip the sequences of moves having a shorter or equal equivalent, up to -D" +
+                    PRUNE_DEPTH + "=<Moves> (" + DEFAULT_PRUNE_DEPTH + " by default, 2 to only skip the moves undoing the last one, " +
+                    MovePruner.MAX_DEPTH + " at most)");
+            System.out.println("The sma searches keep at most -D" + MAX_NODES + "=<States> (" + MAX_SMA_NODES + " by default), " +
+                    "dropping the worst ones and searching them again when needed");
+            System.out.println("Set -D" + CACHE + "=<Paths> to keep that many shortest paths and answer the same puzzles, " +
+                    "whatever the names of their tiles, without searching, and -D" + CACHE_FILE + "=<File> to keep them between runs");
+            return;
+        }
+
+        State initialState = null;
+        State goalState = null;
+        State finishedState = null;
+
+        int size = 0;
+
+        try {
+            size = Integer.valueOf(args[2]);
+        } catch (NumberFormatException e) {
+            System.out.println("The size param was not valid");
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        // Switch for initial State, if it's random, we generate it, otherwise we read from input
+        switch (args[1]){
+            case "RANDOM":
+                initialState = State.getRandomGrid(size);
+                break;
+            default:
+                try {
+                    initialState = new State(args[1], size, 0, null);
+                } catch (IllegalArgumentException e) {
+                    System.out.println("The input for initialState was not conform to the size");
+                    e.printStackTrace();
+                    System.exit(1);
+                }
+                break;
+        }
+
+        System.out.print("\nInitialState: \n"+initialState+"\n");
+
+        // Switch for the goal State
+        switch (args[3]){
+            case "RANDOM":
+                goalState = State.getRandomGrid(size);
+                break;
+            case "GOAL":
+                goalState = State.getPerfectGrid(size);
+                break;
+            default:
+                try {
+                    goalState = new State(args[3], size, 0, null);
+                } catch (IllegalArgumentException e) {
+                    System.out.println("The input for initialState was not conform to the size");
+                    e.printStackTrace();
+                    System.exit(1);
+                }
+                break;
+        }
+
+        // We set the goalState to the initialState
+        initialState.setGoalState(goalState);
+
+        SearchMetrics metrics = new SearchMetrics();
+
+        // The progress is reported every PROGRESS seconds if it is set, with -Dtaquine.progress
+        long progress = Long.getLong(PROGRESS, 0);
+        if (progress > 0)
+            metrics.setProgress(progress * 1000, m -> System.err.println("Searching: " + m));
+        metrics.setTimingHeuristic(Boolean.getBoolean(TIME_HEURISTIC));
+
+        // The searches keeping the visited boards in a VisitedTable refuse the boards that can't be packed
+        try {
+            finishedState = solve(args[0], initialState, goalState, metrics, better ->
+                    System.out.println("Path of cost " + better.getCost() + " found after " + metrics.getSeconds() + " seconds"));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
+
+        Double timeInSeconds = metrics.getSeconds();
+
+        if (finishedState != null) {
+            if (!finishedState.equals(goalState)) {
+                System.out.println("Unachieved - Path:");
+                System.out.println(finishedState);
+            } else {
+                System.out.print("\nOK - Path to the result:\n");
+                displayPath(finishedState);
+            }
+        }else{
+            System.out.println("Unachieved");
+            System.out.println(initialState);
+        }
+
+        System.out.println(timeInSeconds + " seconds to solve the Taquin with the "+args[0]+" method");
+        System.out.println("We resolved it through " + metrics.getExpanded() + " states");
+        System.out.println("Metrics: " + metrics);
+
+        if (cache != null) {
+            System.out.println("Cache: " + cache);
+            saveCache();
+        }
+
+    }
+
+    /**
+     * Solves a puzzle with a type of search, each call has its own metrics so calls can run concurrently
+     *
+     * @param type            The type of search, like in the args of main
+     * @param initialState    The initial state of our puzzle, its goalState must be set
+     * @param goalState        The goal state of our puzzle
+     * @param metrics          The metrics of that search, started and stopped here
+     * @return The state obtained by the search, with its parents back to the initialState, or null if nothing was found
+     * @throws IllegalArgumentException if the type of search is invalid or doesn't support that puzzle
+     */
+
+    public static State solve(String type, State initialState, State goalState, SearchMetrics metrics){
+        return solve(type, initialState, goalState, metrics, null);
+    }
+
+    /**
+     * Solves a puzzle with a type of search, each call has its own metrics so calls can run concurrently
+     *
+     * @param type            The type of search, like in the args of main
+     * @param initialState    The initial state of our puzzle, its goalState must be set
+     * @param goalState        The goal state of our puzzle
+     * @param metrics          The metrics of that search, started and stopped here
+     * @param listener         What the anytime searches call with each better path, or null
+     * @return The state obtained by the search, with its parents back to the initialState, or null if nothing was found
+     * @throws IllegalArgumentException if the type of search is invalid or doesn't support that puzzle
+     */
+
+    public static State solve(String type, State initialState, State goalState, SearchMetrics metrics, Consumer<State> listener){
+        int size = initialState.getN();
+        State finishedState = null;
+        SolutionCache cache = getCache();
+
+        metrics.start(type, size);
+        try {
+            // A shortest path already found answers any search, even the ones that would find a longer one
+            byte[] cached = cache == null ? null : cache.get(initialState, goalState);
+            if (cached != null) {
+                State replayed = replay(initialState, cached);
+                if (replayed != null && replayed.equals(goalState)) {
+                    finishedState = replayed;
+                    return finishedState;
+                }
+                // A stale or edited entry doesn't answer anything, the search finds the path again
+                cache.evict(initialState, goalState);
+            }
+
+            switch (type){
+                case "blind":
+                    finishedState = blindSolve(initialState,goalState,size,false,metrics);
+                    break;
+                case "cachedBlind":
+                    finishedState = blindSolve(initialState,goalState,size,true,metrics);
+                    break;
+                case "parallelBlind":
+                    finishedState = parallelBlindSolve(initialState,goalState,metrics);
+                    break;
+                case "bidirectionalBlind":
+                    finishedState = bidirectionalBlindSolve(initialState,goalState,metrics);
+                    break;
+                case "externalBlind":
+                    finishedState = externalBlindSolve(initialState,goalState,metrics);
+                    break;
+                case "oracle":
+                    finishedState = oracleSolve(initialState,goalState,metrics);
+                    break;
+                case "manhattan":
+                case "misplaced":
+                    finishedState = heuristicsSolve(initialState,goalState,size,Heuristic.fromName(type),metrics);
+                    break;
+                default:
+                    // The other searches are <engine>-<heuristic>
+                    int dash = type.indexOf('-');
+                    Heuristic heuristic = Heuristic.fromName(type.substring(dash + 1));
+
+                    switch (type.substring(0, Math.max(dash, 0))){
+                        case "greedy":
+                            finishedState = heuristicsSolve(initialState,goalState,size,heuristic,metrics);
+                            break;
+                        case "astar":
+                            finishedState = aStarSolve(initialState,goalState,heuristic,metrics);
+                            break;
+                        case "ida":
+                            finishedState = idaStarSolve(initialState,goalState,heuristic,metrics);
+                            break;
+                        case "parallelIda":
+                            finishedState = parallelIdaStarSolve(initialState,goalState,heuristic,metrics);
+                            break;
+                        case "sma":
+                            finishedState = smaStarSolve(initialState,goalState,heuristic,metrics);
+                            break;
+                        case "anytime":
+                            finishedState = anytimeSolve(initialState,goalState,heuristic,metrics,listener);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("This type of search is invalid");
+                    }
+            }
+        } finally {
+            metrics.stop(finishedState == null ? -1 : finishedState.getCost());
+        }
+
+        if (cache != null && finishedState != null && finishedState.equals(goalState) && isOptimal(type))
+            cache.put(initialState, goalState, moves(finishedState));
+
+        return finishedState;
+    }
+
+    /**
+     *
+     * @param type    The type of search, like in the args of main
+     * @return True if the path found by that search is always one of the shortest
+     */
+
+    private static boolean isOptimal(String type){
+        switch (type){
+            case "blind":
+            case "cachedBlind":
+            case "parallelBlind":
+            case "bidirectionalBlind":
+            case "externalBlind":
+            case "oracle":
+                return true;
+            default:
+                return type.startsWith("astar-") || type.startsWith("ida-") || type.startsWith("parallelIda-") ||
+                        type.startsWith("sma-");
+        }
+    }
+
+    /**
+     * The cache is created on the first search if -Dtaquine.cache is set, with the paths of -Dtaquine.cacheFile
+     *
+     * @return The cache shared by every search, or null if there is none
+     */
+
+    private static synchronized SolutionCache getCache(){
+        int capacity = Integer.getInteger(CACHE, 0);
+        if (cache == null && capacity > 0) {
+            cache = new SolutionCache(capacity);
+            String file = System.getProperty(CACHE_FILE);
+            if (file != null && new File(file).isFile()) {
+                try {
+                    cache.load(new File(file));
+                } catch (IOException e) {
+                    System.err.println("The cached paths could not be read from " + file + ": " + e);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Writes the paths of the cache in -Dtaquine.cacheFile, if both are set
+     */
+
+    private static void saveCache(){
+        String file = System.getProperty(CACHE_FILE);
+        if (cache == null || file == null)
+            return;
+        try {
+            cache.save(new File(file));
+        } catch (IOException e) {
+            System.err.println("The cached paths could not be written in " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Solves the puzzles of a file, see BatchSolver
+     *
+     * @param args    batch, the type of search, the size, the input, and optionally the threads and the output
+     */
+
+    private static void solveBatch (String[] args) {
+        try {
+            int size = Integer.valueOf(args[2]);
+            int threads = args.length > 4 ? Integer.valueOf(args[4]) : Runtime.getRuntime().availableProcessors();
+
+            BufferedReader input = args[3].equals("-")
+                    ? new BufferedReader(new InputStreamReader(System.in))
+                    : new BufferedReader(new FileReader(args[3]));
+            Writer output = args.length > 5 && !args[5].equals("-")
+                    ? new BufferedWriter(new FileWriter(args[5]))
+                    : new BufferedWriter(new OutputStreamWriter(System.out));
+
+            try (BufferedReader in = input; Writer out = output) {
+                new BatchSolver(args[1], size, threads).run(in, out);
+            }
+            saveCache();
+        } catch (NumberFormatException e) {
+            System.out.println("The size or threads param was not valid");
+            System.exit(1);
+        } catch (IOException e) {
+            System.out.println("The puzzles could not be read or the results written");
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Solves the requests of a local socket until the process is stopped, see SolverServer
+     *
+     * @param args    serve, the address and optionally the number of searches and the budget in seconds
+     */
+
+    private static void serve (String[] args) {
+        try {
+            int searches = args.length > 2 ? Integer.valueOf(args[2]) : Runtime.getRuntime().availableProcessors();
+            double budget = args.length > 3 ? Double.valueOf(args[3]) : SERVER_BUDGET;
+
+            SolverServer server = new SolverServer(SolverServer.parseAddress(args[1]), searches, (long) (budget * 1000));
+            // The paths found are kept for the next run when the process is stopped
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                saveCache();
+            }));
+
+            System.out.println("Listening on " + server.getAddress());
+            server.run();
+        } catch (NumberFormatException e) {
+            System.out.println("The searches or seconds param was not valid");
+            System.exit(1);
+        } catch (IOException e) {
+            System.out.println("The server could not listen on " + args[1]);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the number of boards at each distance of a state, see ExternalBfs
+     *
+     * @param args    histogram, the size, the state and optionally the last distance
+     */
+
+    private static void printHistogram (String[] args) {
+        try {
+            int size = Integer.valueOf(args[1]);
+            State initialState = args[2].equals("GOAL") ? State.getPerfectGrid(size) : new State(args[2], size, 0, null);
+            int maxDepth = args.length > 3 ? Integer.valueOf(args[3]) : -1;
+
+            SearchMetrics metrics = new SearchMetrics();
+            long[] histogram;
+            metrics.start("histogram", size);
+            try (ExternalBfs search = new ExternalBfs(size, EXTERNAL_BUFFER, new File(ExternalBfs.DIRECTORY), metrics)) {
+                histogram = search.histogram(initialState, maxDepth);
+            } finally {
+                metrics.stop();
+            }
+
+            long total = 0;
+            for (int depth = 0; depth < histogram.length; depth++) {
+                System.out.println(depth + "\t" + histogram[depth]);
+                total += histogram[depth];
+            }
+            System.out.println(total + " boards counted in " + metrics.getSeconds() + " seconds");
+        } catch (NumberFormatException e) {
+            System.out.println("The size or max depth param was not valid");
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.out.println("The depths could not be written in " + ExternalBfs.DIRECTORY);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Builds the pattern database tables of a size, see PatternDatabase
+     *
+     * @param args    generate-pdb, the size and optionally the partition
+     */
+
+    private static void generatePatternDatabase (String[] args) {
+        try {
+            int size = Integer.valueOf(args[1]);
+            String partition = args.length > 2 ? args[2] : null;
+
+            long startTime = System.nanoTime();
+            File file = PatternDatabase.generate(size, partition, new File(PatternDatabase.DIRECTORY));
+            long endTime = System.nanoTime();
+
+            System.out.println("Pattern database written in " + file + " in " + ((endTime - startTime) / Math.pow(10, 9)) + " seconds");
+        } catch (NumberFormatException e) {
+            System.out.println("The size param was not valid");
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.out.println("The pattern database could not be written");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Builds the exact distance table of the size 3, see DistanceOracle
+     */
+
+    private static void generateDistanceOracle () {
+        try {
+            long startTime = System.nanoTime();
+            File file = DistanceOracle.generate(new File(DistanceOracle.DIRECTORY));
+            long endTime = System.nanoTime();
+
+            System.out.println("Distance table written in " + file + " in " + ((endTime - startTime) / Math.pow(10, 9)) + " seconds");
+        } catch (IOException e) {
+            System.out.println("The distance table could not be written");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method that implements a blindSearch to solve
+     *
+     * @param initialState The initialState of our puzzle
+     * @param goalState    The state we want to achieve
+     * @param size         The size of our puzzle
+     * @param optimize     If we use a cache to store already visited states
+     * @param metrics      The metrics of the search
+     * @return The goalState created by the path we used, or null if there is no solution
+     */
+
+    private static State blindSolve(State initialState, State goalState, int size, boolean optimize, SearchMetrics metrics){
+
+        // Collection of State Elements
+        LinkedBlockingQueue<State> queue = new LinkedBlockingQueue<>();
+
+        State currentState;
+
+        // VisitedTable keeps the packed boards with the move that reached them, not the states with their parents
+        VisitedTable visited = optimize ? createVisitedTable(initialState, true) : null;
+
+        // The moves of the state expanded, the same array for every state
+        int[] moves = new int[4];
+
+        //We add the initial state in the LinkedBlockingQueue
+        queue.add(initialState);
+
+        // Loop while the LinkedBlockingQueue isn't empty (while initialState isn't empty)
+        while (!queue.isEmpty()){
+            // The method pool retrieves and removes the head of this queue, or returns null if this queue is empty
+            // We put this element in the currentState variable
+            currentState = queue.poll();
+            metrics.addExpanded(); // We count one more state expanded
+
+            // The queue holds at most two depths, a new one starts when the cost grows
+            if (currentState.getCost() != metrics.getBound())
+                metrics.startIteration(currentState.getCost());
+            metrics.updateOpen(queue.size());
+
+            // If the size is equal to 4 or even more and the size of the LinkedBlockingQueue is bigger than MAX_SIZE_QUEUE
+            // We return the currentState (the head of the queue)
+            if (size > 3 && queue.size()> MAX_TENT) {
+                return currentState;
+            }
+
+            // If we set the boolean optimize at true
+            if (optimize) {
+                // If the VisitedTable doesn't contain the currentState, we add it
+                // The states come out by increasing cost, so the first one of a board is one of the cheapest
+                if (visited.put(currentState.getBoard(), currentState.getCost(), currentState.getLastMove())){
+                    metrics.updateClosed(visited.size());
+                    // If the current state correspond to the goal state
+                    if (currentState.equals(goalState))
+                        // We return it, with the path rebuilt from the moves of the VisitedTable
+                        return rebuild(initialState, visited, currentState);
+                    // If the current state not correspond to the goal state
+                    else
+                        // We add all the successors of the current state to the LinkedBlockingQueue
+                        addSuccessors(queue, currentState, visited, moves, metrics);
+                }
+                // Otherwise it is a duplicate, we already expanded its board
+                else
+                    metrics.addDuplicate();
+            }
+            // If we set the boolean optimize at false
+            else{
+                // If the current state correspond to the goalState
+                if (currentState.equals(goalState))
+                    // We return it
+                    return currentState;
+                else
+                    // Otherwise we add all the successors of the currentState to the LinkedBlockingQueue
+                    addSuccessors(queue, currentState, null, moves, metrics);
+            }
+
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param queue           The queue of the breadth-first search
+     * @param currentState    The state we expand
+     * @param visited         The boards already expanded, their successors are not even created and forget their
+     *                        parent, the path being kept in the table, or null to keep every successor
+     * @param moves           The buffer of the moves, see State.moves
+     * @param metrics         The metrics of the search
+     */
+
+    private static void addSuccessors(LinkedBlockingQueue<State> queue, State currentState, VisitedTable visited, int[] moves, SearchMetrics metrics){
+        int count = currentState.moves(moves);
+        metrics.addGenerated(count);
+        for (int i = 0; i < count; i++) {
+            if (visited == null) {
+                queue.add(currentState.move(moves[i]));
+            } else if (visited.contains(currentState.boardAfter(moves[i]))) {
+                metrics.addDuplicate();
+            } else {
+                State successor = currentState.move(moves[i]);
+                successor.detach();
+                queue.add(successor);
+            }
+        }
+    }
+
+    /**
+     * Method to display the path of the result, from initialState to goalState
+     *
+     * @param result	The result state
+     */
+
+    private static void displayPath(State result) {
+
+        // If the result of what we found is null
+        if (result == null){
+            // We print it and we return nothing
+            System.out.println("No path was found");
+            return;
+        }
+
+        // The Stack class represents a last-in-first-out (LIFO) stack of objects
+        // We create a Stack of the path
+        Stack<State> path = new Stack<>();
+
+        // We create a state which is the final state
+        State temp = result;
+
+        // Loop when the resultState isn't null
+        while (temp!=null){
+            // We push the state into the Stack
+            path.push(temp);
+            // We get the parent state of the final state
+            temp = temp.getParentState();
+        }
+
+        // Loop when the Stack isn't empty
+        // We print all the states who permits to acceed to the final path
+        while (!path.isEmpty()){
+            System.out.println();
+            // We put in tempState the first element of the Stack and we print it
+            State tempState = path.pop();
+            System.out.println(tempState);
+            System.out.println();
+        }
+
+        // We print the cost of the complete path of the result
+        System.out.println("Cost of path: " + result.getCost());
+    }
+
+    /**
+     * Heuristic search method to solve puzzle, greedy best-first: fast, but the path is not the shortest
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param size            The size of the puzzle
+     * @param heuristic        The heuristic we use, manhattan or misplaced tiles
+     * @param metrics          The metrics of the search
+     * @return The result state, obtained from the search
+     */
+
+    private static State heuristicsSolve(State initialState, State goalState, int size, Heuristic heuristic, SearchMetrics metrics){
+
+        // We create a BucketQueue of states with the heuristic as priority
+        // It is maintained by the states themselves, so computing the priority doesn't rescan the boards
+        BucketQueue<State> priority = new BucketQueue<>();
+
+        // We create a currentState initialized at null
+        State currentState = null;
+
+        // We create a VisitedTable of the packed boards, with the move that reached each one to rebuild the path
+        VisitedTable visited = createVisitedTable(initialState, true);
+
+        // The moves of the state expanded, the same array for every state
+        int[] moves = new int[4];
+
+        // A copy of the state expanded, moved in place to look for each successor in the BucketQueue before creating it
+        State cursor = State.getPerfectGrid(size);
+
+        // We add in the BucketQueue the initialState
+        priority.put(initialState, metrics.evaluate(heuristic, initialState));
+        // Loop when the BucketQueue isn't empty
+        while (!priority.isEmpty()) {
+
+            // We retrieves and removes the head of this BucketQueue and put it into the currentState
+            currentState = priority.poll();
+            // We count one more state expanded
+            metrics.addExpanded();
+            metrics.updateOpen(priority.size());
+            // If the current state is the goalState
+
+            if (currentState.equals(goalState))
+                // We return the currentState, with the path rebuilt from the moves of the VisitedTable
+                return rebuild(initialState, visited, currentState);
+
+            // We get the moves to the successors of the currentState, without creating them yet
+            int count = currentState.moves(moves);
+            metrics.addGenerated(count);
+            cursor.copyFrom(currentState);
+
+            // For each successor
+            for (int i = 0; i < count; i++) {
+                // The boards already expanded are skipped before their state is created
+                if (visited.contains(currentState.boardAfter(moves[i]))) {
+                    metrics.addDuplicate();
+                    continue;
+                }
+                // The boards already in the BucketQueue too, the cursor takes the place of the successor
+                int previous = cursor.apply(moves[i]);
+                boolean queued = priority.contains(cursor);
+                cursor.undo(moves[i], previous);
+                if (!queued) {
+                    // We add to the BucketQueue the successor, once evaluated it doesn't need its parent anymore
+                    State successor = currentState.move(moves[i]);
+                    priority.put(successor, metrics.evaluate(heuristic, successor));
+                    successor.detach();
+                }
+                else
+                    metrics.addDuplicate();
+
+            }
+            // Finally we add to the VisitedTable the currentState
+            visited.put(currentState.getBoard(), currentState.getCost(), currentState.getLastMove());
+            metrics.updateClosed(visited.size());
+        }
+
+        // We return the currentState
+        return rebuild(initialState, visited, currentState);
+    }
+
+    /**
+     * A* search method to solve puzzle, the states are ordered by f = cost + heuristic
+     * With manhattan or misplaced tiles the heuristic never overestimates, so the path found is the shortest
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param heuristic        The heuristic we use, manhattan or misplaced tiles
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     */
+
+    private static State aStarSolve(State initialState, State goalState, Heuristic heuristic, SearchMetrics metrics){
+
+        // Lowest f first, on a tie the last state queued first, usually the deepest one, which is closer to the goal
+        BucketQueue<State> priority = new BucketQueue<>();
+
+        // For each board the cheapest cost reaching it so far, opened or already expanded
+        VisitedTable best = createVisitedTable(initialState, true);
+
+        priority.put(initialState, metrics.evaluate(heuristic, initialState));
+        best.put(initialState.getBoard(), 0, -1);
+
+        // The moves of the state expanded, the same array for every state
+        int[] moves = new int[4];
+
+        while (!priority.isEmpty()) {
+            State currentState = priority.poll();
+            metrics.addExpanded();
+            metrics.updateOpen(priority.size());
+
+            // The states come out by increasing f, a new iteration starts when it grows
+            // The heuristics cache their value in the state, evaluating it again is cheap
+            int f = currentState.getCost() + heuristic.evaluate(currentState);
+            if (f > metrics.getBound())
+                metrics.startIteration(f);
+
+            if (currentState.equals(goalState))
+                return rebuild(initialState, best, currentState);
+
+            int count = currentState.moves(moves);
+            for (int i = 0; i < count; i++) {
+                metrics.addGenerated();
+                // We keep the successor only if it is the first or the cheapest way to reach its board
+                // If its board is still queued, the cheaper state replaces it and moves to its lower f
+                // The table is checked on the board alone, so the state is only created when it is kept
+                // The path is kept by the moves of the table, so once evaluated the state forgets its parent
+                if (best.put(currentState.boardAfter(moves[i]), currentState.getCost() + 1, moves[i])) {
+                    State successor = currentState.move(moves[i]);
+                    priority.put(successor, successor.getCost() + metrics.evaluate(heuristic, successor));
+                    successor.detach();
+                }
+                else
+                    metrics.addDuplicate();
+            }
+            metrics.updateClosed(best.size());
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param initialState    The initial state of the search
+     * @param withCosts        If the table keeps the cost and the move of each board
+     * @return An empty VisitedTable for the boards of that search
+     * @throws IllegalArgumentException if the boards are too big to be packed
+     */
+
+    private static VisitedTable createVisitedTable(State initialState, boolean withCosts){
+        if (initialState.getN() > State.MAX_PACKED_SIZE)
+            throw new IllegalArgumentException("This type of search only supports sizes up to " + State.MAX_PACKED_SIZE);
+        return new VisitedTable(1 << 16, withCosts);
+    }
+
+    /**
+     * Iterative deepening A* search method to solve puzzle, see IdaStar
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param heuristic        The heuristic we use, manhattan or misplaced tiles
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     */
+
+    private static State idaStarSolve(State initialState, State goalState, Heuristic heuristic, SearchMetrics metrics){
+
+        // The depth-first search would never end on a puzzle without solution
+        if (!initialState.isSolvable())
+            return null;
+
+        // The automaton is built on the first search, each depth only once
+        MovePruner pruner = MovePruner.forDepth(Integer.getInteger(PRUNE_DEPTH, DEFAULT_PRUNE_DEPTH));
+        IdaStar search = new IdaStar(initialState, goalState, heuristic, pruner, metrics);
+        byte[] moves = search.solve();
+
+        return replay(initialState, moves);
+    }
+
+    /**
+     * Iterative deepening A* search method sharing each iteration between all the cores, see ParallelIdaStar
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param heuristic        The heuristic we use, manhattan or misplaced tiles
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     */
+
+    private static State parallelIdaStarSolve(State initialState, State goalState, Heuristic heuristic, SearchMetrics metrics){
+
+        // The depth-first searches would never end on a puzzle without solution
+        if (!initialState.isSolvable())
+            return null;
+
+        MovePruner pruner = MovePruner.forDepth(Integer.getInteger(PRUNE_DEPTH, DEFAULT_PRUNE_DEPTH));
+        ParallelIdaStar search = new ParallelIdaStar(initialState, goalState, heuristic, pruner, ForkJoinPool.commonPool(), metrics);
+        byte[] moves = search.solve();
+
+        return replay(initialState, moves);
+    }
+
+    /**
+     * Simplified memory-bounded A* search method, for the heaps too small for astar, see SmaStar
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param heuristic        The heuristic we use, manhattan or misplaced tiles
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     *         or if the shortest path is longer than the states kept
+     */
+
+    private static State smaStarSolve(State initialState, State goalState, Heuristic heuristic, SearchMetrics metrics){
+
+        // The dropped states would be searched again forever on a puzzle without solution
+        if (!initialState.isSolvable())
+            return null;
+
+        MovePruner pruner = MovePruner.forDepth(Integer.getInteger(PRUNE_DEPTH, DEFAULT_PRUNE_DEPTH));
+        SmaStar search = new SmaStar(initialState, goalState, heuristic, pruner, Long.getLong(MAX_NODES, MAX_SMA_NODES), metrics);
+        byte[] moves = search.solve();
+
+        return moves == null ? null : replay(initialState, moves);
+    }
+
+    /**
+     * Anytime weighted A* search method to solve puzzle, for the boards too big for the other searches, see AnytimeAStar
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param heuristic        The heuristic we use, manhattan, misplaced or linear-conflict for the big boards
+     * @param metrics          The metrics of the search
+     * @param listener         What we call with each better path, or null
+     * @return The goal state reached through the shortest path found within the budget, or null if there is
+     *         no solution or if the budget ran out before the first path
+     */
+
+    private static State anytimeSolve(State initialState, State goalState, Heuristic heuristic, SearchMetrics metrics,
+                                      Consumer<State> listener){
+
+        // The searches would grow until the budget on a puzzle without solution
+        if (!initialState.isSolvable())
+            return null;
+
+        long budget = Long.getLong(BUDGET, ANYTIME_BUDGET);
+        long maxStates = Long.getLong(MAX_STATES, MAX_ANYTIME_STATES);
+
+        AnytimeAStar search = new AnytimeAStar(initialState, goalState, heuristic, metrics);
+        State best = search.solve(budget * 1000000000L, maxStates, listener);
+        metrics.setBudgetLimited(best != null && !search.isOptimal());
+        return best;
+    }
+
+    /**
+     * Breadth-first search method expanding each depth on all the cores, see ParallelBfs
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     *         or if we gave up after MAX_PARALLEL_STATES states
+     */
+
+    private static State parallelBlindSolve(State initialState, State goalState, SearchMetrics metrics){
+        if (initialState.getN() > State.MAX_PACKED_SIZE)
+            throw new IllegalArgumentException("This type of search only supports sizes up to " + State.MAX_PACKED_SIZE);
+
+        ParallelBfs search = new ParallelBfs(goalState, MAX_PARALLEL_STATES, ForkJoinPool.commonPool(), metrics);
+        byte[] moves = search.solve(initialState);
+
+        return moves == null ? null : replay(initialState, moves);
+    }
+
+    /**
+     * Breadth-first search method growing from both the initial and the goal states, see BidirectionalBfs
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     *         or if we gave up after MAX_PARALLEL_STATES states
+     */
+
+    private static State bidirectionalBlindSolve(State initialState, State goalState, SearchMetrics metrics){
+        if (initialState.getN() > State.MAX_PACKED_SIZE)
+            throw new IllegalArgumentException("This type of search only supports sizes up to " + State.MAX_PACKED_SIZE);
+
+        // Both sides would grow until the limit on a puzzle without solution
+        if (!initialState.isSolvable())
+            return null;
+
+        BidirectionalBfs search = new BidirectionalBfs(initialState.getN(), MAX_PARALLEL_STATES, metrics);
+        byte[] moves = search.solve(initialState, goalState);
+
+        return moves == null ? null : replay(initialState, moves);
+    }
+
+    /**
+     * Breadth-first search method keeping its depths on disk instead of in the memory, see ExternalBfs
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     */
+
+    private static State externalBlindSolve(State initialState, State goalState, SearchMetrics metrics){
+        // The search would write every board reachable on a puzzle without solution
+        if (!initialState.isSolvable())
+            return null;
+
+        try (ExternalBfs search = new ExternalBfs(initialState.getN(), EXTERNAL_BUFFER, new File(ExternalBfs.DIRECTORY), metrics)) {
+            byte[] moves = search.solve(initialState, goalState);
+            return moves == null ? null : replay(initialState, moves);
+        } catch (IOException e) {
+            // The message of some of them is only a path, the line of a batch must say what went wrong
+            throw new UncheckedIOException("The depths could not be written in " + ExternalBfs.DIRECTORY + ": " + e, e);
+        }
+    }
+
+    /**
+     * Search method reading the shortest path of a 3x3 puzzle in the exact distance table, see DistanceOracle
+     *
+     * @param initialState    The initial state of our puzzle
+     * @param goalState        The goal state of our puzzle
+     * @param metrics          The metrics of the search
+     * @return The goal state reached through the shortest path, or null if there is no solution
+     */
+
+    private static State oracleSolve(State initialState, State goalState, SearchMetrics metrics){
+        if (initialState.getN() != 3)
+            throw new IllegalArgumentException("This type of search only supports the size 3");
+
+        // The other parity class is not in the table
+        if (!initialState.isSolvable())
+            return null;
+
+        byte[] moves = DistanceOracle.get().solve(initialState, goalState, metrics);
+        return replay(initialState, moves);
+    }
+
+    /**
+     * Rebuilds the path of a state whose search kept the move reaching each board in a VisitedTable
+     * The parent of a board is the one where the empty case comes back, we walk them back to the initial board
+     *
+     * @param initialState    The initial state of the search, its board has no move in the table
+     * @param visited          The boards of the search with their move, see VisitedTable.put
+     * @param last             The state we want the path of, its own board may be missing from the table
+     * @return A copy of the last state, its parents going back to the initialState
+     */
+
+    private static State rebuild(State initialState, VisitedTable visited, State last){
+        int n = initialState.getN();
+        byte[] moves = new byte[Math.max(last.getCost(), 16)];
+        int length = 0;
+
+        long board = last.getBoard();
+        for (int move = last.getLastMove(); move >= 0; move = visited.getMove(board)) {
+            if (length == moves.length)
+                moves = Arrays.copyOf(moves, length * 2);
+            moves[length++] = (byte) move;
+            board = PackedBoard.undo(board, n, move);
+        }
+
+        // The moves were found from the last state, backward
+        byte[] path = new byte[length];
+        for (int i = 0; i < length; i++) {
+            path[i] = moves[length - 1 - i];
+        }
+        return replay(initialState, path);
+    }
+
+    /**
+     *
+     * @param finishedState    The last state of a path
+     * @return The moves of the empty case from the first state of the path, see Board.MOVE_NAMES
+     */
+
+    private static byte[] moves(State finishedState){
+        int length = 0;
+        for (State state = finishedState; state.getParentState() != null; state = state.getParentState()) {
+            length++;
+        }
+
+        byte[] moves = new byte[length];
+        for (State state = finishedState; state.getParentState() != null; state = state.getParentState()) {
+            moves[--length] = (byte) state.getLastMove();
+        }
+        return moves;
+    }
+
+    /**
+     * Rebuilds the states of a path found by a search working on moves only
+     *
+     * @param initialState    The initial state of the path
+     * @param moves            The moves of the empty case, see Board.MOVE_NAMES
+     * @return The last state of the path, its parents going back to the initialState, or null if a move leaves
+     *         the board
+     */
+
+    private static State replay(State initialState, byte[] moves){
+        State currentState = initialState;
+        for (int i = 0; i < moves.length && currentState != null; i++) {
+            currentState = currentState.move(moves[i]);
+        }
+        return currentState;
+    }
+
+}
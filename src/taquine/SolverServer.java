@@ -0,0 +1,194 @@
+package taquine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class of a long-running solver listening on a local socket, so that the tables, the caches and the compiled code
+ * of the searches stay warm from one puzzle to the next
+ *
+ * A client sends one request per line: the type of search, the size, the initial state and optionally the goal state
+ * and a budget in seconds, separated by spaces, like '<Search type> <Size> <Initial State> <Goal State> <Seconds>'.
+ * Each request gives one line, in the same order: the result line of BatchSolver, UNSOLVED if the budget ran out,
+ * or BUSY if too many searches are already running. STATS gives the counters of the server instead.
+ *
+ * Each connection has its own thread, a virtual one when the runtime has them, its searches run on it one after
+ * the other. Closing the server cancels the searches still running.
+ */
+
+public class SolverServer implements Closeable {
+    private final ServerSocketChannel channel;
+    private final SocketAddress address;
+    private final ExecutorService threads;
+    private final Semaphore searches;
+    private final long budgetMillis;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong unsolved = new AtomicLong();
+
+    /**
+     * Main constructor for SolverServer, it is bound when created
+     *
+     * @param address         Where we listen, see parseAddress
+     * @param maxSearches     The number of searches running at the same time, the requests beyond it are BUSY
+     * @param budgetMillis    The longest time given to a request, and the default one
+     */
+    public SolverServer (SocketAddress address, int maxSearches, long budgetMillis) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            // The file of a server that was killed is left behind, it would make the bind fail
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            this.channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            this.channel = ServerSocketChannel.open();
+        }
+        this.channel.bind(address);
+        this.address = channel.getLocalAddress();
+        this.threads = newThreadPerTaskExecutor();
+        this.searches = new Semaphore(maxSearches);
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     *
+     * @param address    A port on the loopback interface, 0 for any free one, or the path of a Unix domain socket
+     * @return The address of the socket
+     */
+    public static SocketAddress parseAddress (String address) {
+        try {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        } catch (NumberFormatException e) {
+            return UnixDomainSocketAddress.of(address);
+        }
+    }
+
+    /**
+     * Virtual threads only exist from Java 21, before that each task gets a platform thread
+     *
+     * @return An executor starting a new thread for each task
+     */
+    private static ExecutorService newThreadPerTaskExecutor () {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     *
+     * @return The address we listen on, with the port chosen if it was 0
+     */
+    public SocketAddress getAddress () {
+        return address;
+    }
+
+    /**
+     * Accepts the connections until the server is closed
+     */
+    public void run () throws IOException {
+        try {
+            while (true) {
+                SocketChannel connection = channel.accept();
+                threads.execute(() -> serve(connection));
+            }
+        } catch (ClosedChannelException e) {
+            // Closed by close, from another thread
+        }
+    }
+
+    /**
+     * Answers the requests of a connection, one after the other, until the client closes it
+     *
+     * @param connection    The connection of a client
+     */
+    private void serve (SocketChannel connection) {
+        try (SocketChannel client = connection;
+             BufferedReader input = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+             Writer output = Channels.newWriter(client, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = input.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                output.write(handle(line) + "\n");
+                output.flush();
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    /**
+     *
+     * @param request    A request line
+     * @return The result line of that request
+     */
+    String handle (String request) {
+        if (request.equals("STATS"))
+            return "STATS\t" + requests + " requests, " + rejected + " busy, " + unsolved + " unsolved, " +
+                    searches.availablePermits() + " free searches";
+
+        requests.incrementAndGet();
+        String[] parts = request.split("\\s+");
+        if (parts.length < 3)
+            return "ERROR\tA request is <Search type> <Size> <Initial State> <Goal State> <Seconds>";
+
+        String type = parts[0];
+        int size;
+        long budget = budgetMillis;
+        try {
+            size = Integer.parseInt(parts[1]);
+            if (parts.length > 4)
+                budget = Math.min(budget, (long) (Double.parseDouble(parts[4]) * 1000));
+        } catch (NumberFormatException e) {
+            return "ERROR\tThe size or seconds param was not valid";
+        }
+        String instance = parts[2] + (parts.length > 3 ? " " + parts[3] : "");
+
+        if (!searches.tryAcquire()) {
+            rejected.incrementAndGet();
+            return "BUSY";
+        }
+
+        try {
+            String result = BatchSolver.solve(new SearchEngine(type), size, instance, new SearchBudget(0, Math.max(budget, 1)));
+            if (result.startsWith("UNSOLVED"))
+                unsolved.incrementAndGet();
+            return result;
+        } finally {
+            searches.release();
+        }
+    }
+
+    /**
+     * Stops accepting the connections, the ones already open are dropped, their threads being interrupted
+     */
+    @Override
+    public void close () throws IOException {
+        channel.close();
+        threads.shutdownNow();
+        if (address instanceof UnixDomainSocketAddress)
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+    }
+}
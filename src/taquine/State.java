@@ -0,0 +1,866 @@
+package taquine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class representing a state of the game
+ *
+ * Boards up to 4x4 are packed in a single long, 4 bits per tile, the tile of index k (top left to bottom right)
+ * being stored in the bits 4k to 4k+3. Bigger boards fall back to one byte per tile, with a Zobrist hash: the xor of
+ * a random key for each tile and its case, updated by a move from the two cases it swaps.
+ */
+
+public class State implements Grid {
+    /** The biggest side that fits in the packed representation */
+    public static final int MAX_PACKED_SIZE = 4;
+
+    private static final ConcurrentHashMap<Integer, long[]> ZOBRIST_KEYS = new ConcurrentHashMap<>();
+
+    private long board;
+    private byte[] tiles;
+    private long[] zobristKeys;
+    private long hash;
+    private int n;
+    private int cost;
+    private int indexOfEmpty;
+    private State parentState;
+    private byte lastMove = -1;
+    private State goalState;
+    private int[] goalRows;
+    private int[] goalColumns;
+    private int[][] tablesAsGoal;
+    private int manhattanDistance;
+    private int misplacedElements;
+    private int patternDatabaseDistance = -1;
+    private int linearConflicts = -1;
+    private long rowCode;
+    private long columnCode;
+    private int[] lineBuffer;
+
+    /**
+     * Constructor from 2D array
+     *
+     * @param state       The state as a 2d array
+     * @param n           The size of the puzzle side
+     * @param cost        The cost of the path to this state
+     * @param parentState The parent state of this state
+     */
+
+    public State (int[][] state, int n, int cost, State parentState) {
+        if (state.length != n || state[0].length != n)
+            throw new IllegalArgumentException("invalid state, size not compatible");
+
+        int[] values = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i * n + j] = state[i][j];
+            }
+        }
+
+        this.n = n;
+        this.cost = cost;
+        this.parentState = parentState;
+        this.goalState = null;
+        pack(values);
+    }
+
+    /**
+     * Constructor from String
+     *
+     * @param state            The state as a string, separated by "-"
+     * @param n                The size of the puzzle side
+     * @param cost            The cost of the path to this state
+     * @param parentState	The parent state of this state
+     */
+
+    public State (String state, int n, int cost, State parentState){
+        String[] oneDimArray = state.split("-");
+        if (oneDimArray.length != Math.pow(n,2))
+            throw new IllegalArgumentException("invalid state, size not compatible");
+
+        int[] values = new int[n * n];
+        for (int i = 0; i < oneDimArray.length; i++) {
+            values[i] = Integer.valueOf(oneDimArray[i]);
+        }
+
+        this.n = n;
+        this.cost = cost;
+        this.parentState = parentState;
+        this.goalState = null;
+        pack(values);
+    }
+
+    /**
+     * Constructor from array, implementing goalState here
+     *
+     * @param state            The state as a 2d array
+     * @param n                The size of the puzzle side
+     * @param cost            The cost of the path to this state
+     * @param parentState    The parent state of this state
+     * @param goalState		The goalState of this puzzle
+     */
+
+    public State (int[][] state, int n, int cost, State parentState, State goalState) {
+        this(state, n, cost, parentState);
+        setGoalState(goalState);
+    }
+
+    /**
+     * Copy constructor used by the moves, the board is given already packed
+     *
+     * @param board         The packed board, only used when n <= MAX_PACKED_SIZE
+     * @param tiles         The board as one byte per tile, only used when n > MAX_PACKED_SIZE
+     * @param n             The size of the puzzle side
+     * @param indexOfEmpty  The index of the empty case
+     * @param cost          The cost of the path to this state
+     * @param parentState   The parent state of this state, we inherit its goalState, or null
+     */
+
+    private State (long board, byte[] tiles, int n, int indexOfEmpty, int cost, State parentState) {
+        this.board = board;
+        this.tiles = tiles;
+        this.n = n;
+        this.indexOfEmpty = indexOfEmpty;
+        this.cost = cost;
+        this.parentState = parentState;
+        if (parentState != null) {
+            this.lastMove = (byte) moveBetween(parentState.indexOfEmpty, indexOfEmpty);
+            this.goalState = parentState.goalState;
+            this.goalRows = parentState.goalRows;
+            this.goalColumns = parentState.goalColumns;
+            this.zobristKeys = parentState.zobristKeys;
+        }
+    }
+
+    /**
+     * Packs the values of the cases in the representation fitting the size n
+     *
+     * @param values    The values of the cases, top left to bottom right
+     */
+
+    private void pack (int[] values) {
+        boolean[] seen = new boolean[values.length];
+        for (int value : values) {
+            if (value < 0 || value >= values.length || seen[value])
+                throw new IllegalArgumentException("invalid state, values must be a permutation of 0.." + (values.length - 1));
+            seen[value] = true;
+        }
+
+        if (n <= MAX_PACKED_SIZE) {
+            board = PackedBoard.pack(values);
+        } else {
+            tiles = new byte[values.length];
+            zobristKeys = zobristKeys(n);
+            for (int k = 0; k < values.length; k++) {
+                tiles[k] = (byte) values[k];
+                hash ^= zobristKeys[values[k] * values.length + k];
+            }
+        }
+
+        for (int k = 0; k < values.length; k++) {
+            if (values[k] == 0)
+                indexOfEmpty = k;
+        }
+    }
+
+    /**
+     * The keys are drawn once per size, from a fixed seed so that the hashes are the same from one run to the next
+     *
+     * @param n    The size of the puzzle side
+     * @return The Zobrist key of each tile at each case, the case of index k of the tile t being at t * n * n + k
+     */
+    private static long[] zobristKeys (int n) {
+        return ZOBRIST_KEYS.computeIfAbsent(n, size -> {
+            long[] keys = new long[size * size * size * size];
+            Random random = new Random(size);
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+            return keys;
+        });
+    }
+
+    /**
+     *
+     * @param index    The index of the case, top left to bottom right
+     * @return The value of the case at that index, 0 for the empty case
+     */
+    public int getTile (int index) {
+        if (tiles != null)
+            return tiles[index] & 0xFF;
+        return PackedBoard.tile(board, index);
+    }
+
+    /**
+     *
+     * @return The index of the empty case, top left to bottom right
+     */
+    public int getIndexOfEmpty () {
+        return indexOfEmpty;
+    }
+
+    /**
+     *
+     * @return The packed board, only meaningful when n <= MAX_PACKED_SIZE
+     */
+    public long getBoard () {
+        return board;
+    }
+
+    /**
+     * There are at most 4 successors for the initial state, and at most 3 for the others: the move undoing the last
+     * one would only give back the board of the parent, at a higher cost, so it is never generated
+     *
+     * @return An ArrayList of the states that are successors to this state instance
+     */
+
+    public ArrayList<State> successors () {
+        int[] moves = new int[4];
+        int count = moves(moves);
+
+        // We create an ArrayList of States, the moves are tried left, up, right and down, like Board.MOVE_NAMES
+        ArrayList<State> successors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            successors.add(move(moves[i]));
+        }
+
+        // And the we return the ArrayList of successors
+        return successors;
+    }
+
+    /**
+     * The moves of successors, without creating their states: a search with a table of the boards looks up the
+     * board of each move first (see boardAfter), and only creates the states it keeps
+     *
+     * @param moves    Where we write the moves, reused by the caller from one state to the next, at least 4 long
+     * @return The number of moves written, in the order of Board.MOVE_NAMES
+     */
+    public int moves (int[] moves) {
+        int count = 0;
+        for (int move = Board.LEFT; move <= Board.DOWN; move++) {
+            // The last move is kept when the state is detached, so it is skipped in every search
+            if (lastMove >= 0 && move == Board.inverse(lastMove))
+                continue;
+            if (PackedBoard.target(indexOfEmpty, n, move) >= 0)
+                moves[count++] = move;
+        }
+        return count;
+    }
+
+    /**
+     *
+     * @param move    A move of the empty case that stays on the board, see moves
+     * @return The packed board obtained by that move, only meaningful when n <= MAX_PACKED_SIZE
+     */
+    public long boardAfter (int move) {
+        return PackedBoard.move(board, indexOfEmpty, PackedBoard.target(indexOfEmpty, n, move));
+    }
+
+    /**
+     * Makes this state a copy of another one, reusing its own tiles, so that a search can keep a single state to
+     * move in place (see apply) instead of creating the successors it would drop
+     *
+     * @param state    The state we copy, its parent is not kept
+     */
+    public void copyFrom (State state) {
+        this.board = state.board;
+        if (state.tiles == null)
+            this.tiles = null;
+        else if (this.tiles != null && this.tiles.length == state.tiles.length)
+            System.arraycopy(state.tiles, 0, this.tiles, 0, state.tiles.length);
+        else
+            this.tiles = state.tiles.clone();
+        this.zobristKeys = state.zobristKeys;
+        this.hash = state.hash;
+        this.n = state.n;
+        this.cost = state.cost;
+        this.indexOfEmpty = state.indexOfEmpty;
+        this.parentState = null;
+        this.lastMove = state.lastMove;
+        this.goalState = state.goalState;
+        this.goalRows = state.goalRows;
+        this.goalColumns = state.goalColumns;
+        this.manhattanDistance = state.manhattanDistance;
+        this.misplacedElements = state.misplacedElements;
+        this.patternDatabaseDistance = state.patternDatabaseDistance;
+        this.linearConflicts = state.linearConflicts;
+        this.rowCode = state.rowCode;
+        this.columnCode = state.columnCode;
+    }
+
+    /**
+     * Moves the empty case in place, like Board.move: the board, its hash and the heuristics already computed are
+     * updated from the tile that moved only, the pattern database distance is computed again when asked.
+     * The state must have no parent (see detach and copyFrom), and must not be in a map or a queue meanwhile,
+     * its hashcode changes
+     *
+     * @param move    A move of the empty case that stays on the board, see moves
+     * @return The last move before that one, to give back to undo
+     */
+    public int apply (int move) {
+        int previous = lastMove;
+        swapInPlace(PackedBoard.target(indexOfEmpty, n, move));
+        cost++;
+        lastMove = (byte) move;
+        return previous;
+    }
+
+    /**
+     * Creates the successor this state stands for once moved with apply, with the heuristics it already computed,
+     * so that a successor kept doesn't evaluate them again
+     *
+     * @param parentState    The state this one was copied from before the move, the parent of the successor
+     * @return A new state of the same board, cost and heuristics, child of parentState
+     */
+    public State child (State parentState) {
+        State child = new State(board, tiles == null ? null : tiles.clone(), n, indexOfEmpty, cost, parentState);
+        child.hash = hash;
+        child.manhattanDistance = manhattanDistance;
+        child.misplacedElements = misplacedElements;
+        child.patternDatabaseDistance = patternDatabaseDistance;
+        child.linearConflicts = linearConflicts;
+        child.rowCode = rowCode;
+        child.columnCode = columnCode;
+        return child;
+    }
+
+    /**
+     * Cancels apply, the state is back to the board, cost and last move it had before it
+     *
+     * @param move        The move given to apply
+     * @param previous    The last move apply returned
+     */
+    public void undo (int move, int previous) {
+        swapInPlace(PackedBoard.target(indexOfEmpty, n, Board.inverse(move)));
+        cost--;
+        lastMove = (byte) previous;
+    }
+
+    /**
+     * The tile goes from newIndex to our empty case, and the empty case the other way
+     *
+     * @param newIndex    The index where to put the empty case
+     */
+    private void swapInPlace (int newIndex) {
+        int tile = getTile(newIndex);
+
+        if (goalState != null) {
+            int before = distanceToGoal(tile, newIndex);
+            int after = distanceToGoal(tile, indexOfEmpty);
+            manhattanDistance += after - before;
+            misplacedElements += (after != 0 ? 1 : 0) - (before != 0 ? 1 : 0);
+
+            if (linearConflicts >= 0) {
+                if (lineBuffer == null)
+                    lineBuffer = new int[2 * n];
+                linearConflicts -= LinearConflict.moveConflicts(this, newIndex, indexOfEmpty, goalRows, goalColumns, lineBuffer);
+            }
+            if (rowCode != 0) {
+                rowCode += WalkingDistance.shift(n, indexOfEmpty / n, goalRows[tile]) - WalkingDistance.shift(n, newIndex / n, goalRows[tile]);
+                columnCode += WalkingDistance.shift(n, indexOfEmpty % n, goalColumns[tile]) - WalkingDistance.shift(n, newIndex % n, goalColumns[tile]);
+            }
+        }
+
+        if (tiles == null) {
+            board = PackedBoard.move(board, indexOfEmpty, newIndex);
+        } else {
+            tiles[indexOfEmpty] = (byte) tile;
+            tiles[newIndex] = 0;
+            int cells = tiles.length;
+            hash ^= zobristKeys[tile * cells + newIndex] ^ zobristKeys[tile * cells + indexOfEmpty]
+                    ^ zobristKeys[indexOfEmpty] ^ zobristKeys[newIndex];
+        }
+
+        if (goalState != null && linearConflicts >= 0)
+            linearConflicts += LinearConflict.moveConflicts(this, newIndex, indexOfEmpty, goalRows, goalColumns, lineBuffer);
+        patternDatabaseDistance = -1;
+        indexOfEmpty = newIndex;
+    }
+
+    /**
+     *
+     * @param move    A move of the empty case, Board.LEFT, Board.UP, Board.RIGHT or Board.DOWN
+     * @return The state obtained by that move, null if it doesn't exist
+     */
+    public State move (int move) {
+        switch (move) {
+            case Board.LEFT:
+                return this.Left();
+            case Board.UP:
+                return this.Up();
+            case Board.RIGHT:
+                return this.Right();
+            case Board.DOWN:
+                return this.Down();
+            default:
+                throw new IllegalArgumentException("invalid move " + move);
+        }
+    }
+
+    /**
+     *
+     * @return The state obtained by moving the empty case to the left, null if it doesn't exist
+     */
+    private State Left () {
+        // If the empty case is on the first column
+        // We return null
+        if (this.indexOfEmpty % n == 0)
+            return null;
+
+        // Else we return the new State with the move to the left, one index before
+        return swapEmptyWith(this.indexOfEmpty - 1);
+    }
+
+    /**
+     *
+     * @return The state obtained by moving the empty case to the right, null if it doesn't exist
+     */
+    private State Right () {
+        // If the empty case is on the last column
+        // We return null
+        if (this.indexOfEmpty % n == n - 1)
+            return null;
+
+        // Else we return the new State with the move to the right, one index after
+        return swapEmptyWith(this.indexOfEmpty + 1);
+    }
+
+    /**
+     *
+     * @return The state obtained by moving the empty case up, null if it doesn't exist
+     */
+    private State Up () {
+        // If the empty case is on the first row
+        // We return null
+        if (this.indexOfEmpty < n)
+            return null;
+
+        // Else we return the new State with the move up, one row before
+        return swapEmptyWith(this.indexOfEmpty - n);
+    }
+
+    /**
+     *
+     * @return The state obtained by moving the empty case down, null if it doesn't exist
+     */
+    private State Down () {
+        // If the empty case is on the last row
+        // We return null
+        if (this.indexOfEmpty >= n * (n - 1))
+            return null;
+
+        // Else we return the new State with the move down, one row after
+        return swapEmptyWith(this.indexOfEmpty + n);
+    }
+
+    /**
+     *
+     * @param obj    The object to check against
+     * @return True if the state are equals (we talk about the board, not the cost or anything else), false otherwise
+     */
+    @Override
+    public boolean equals (Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof State))
+            return false;
+
+        State other = (State) obj;
+        // The hashes differ for nearly every pair of boards, the tiles are only compared when they match
+        return this.n == other.n && this.board == other.board && this.hash == other.hash && Arrays.equals(this.tiles, other.tiles);
+    }
+
+    /**
+     *
+     * @param newIndex    The index where to put the empty case
+     * @return The state obtained by swapping the empty case with the case at newIndex
+     */
+    private State swapEmptyWith (int newIndex) {
+        int tile = getTile(newIndex);
+        State successor;
+
+        if (tiles == null) {
+            long newBoard = PackedBoard.move(this.board, this.indexOfEmpty, newIndex);
+            successor = new State(newBoard, null, this.n, newIndex, this.cost + 1, this);
+        } else {
+            byte[] newTiles = this.tiles.clone();
+            newTiles[this.indexOfEmpty] = (byte) tile;
+            newTiles[newIndex] = 0;
+            successor = new State(0L, newTiles, this.n, newIndex, this.cost + 1, this);
+            // The tile goes from newIndex to our empty case, and the empty case the other way
+            int cells = newTiles.length;
+            successor.hash = this.hash ^ zobristKeys[tile * cells + newIndex] ^ zobristKeys[tile * cells + this.indexOfEmpty]
+                    ^ zobristKeys[this.indexOfEmpty] ^ zobristKeys[newIndex];
+        }
+
+        // Only the moved tile changes its contribution to the heuristics, it goes from newIndex to our empty case
+        if (goalState != null) {
+            successor.manhattanDistance = this.manhattanDistance
+                    - distanceToGoal(tile, newIndex) + distanceToGoal(tile, this.indexOfEmpty);
+            successor.misplacedElements = this.misplacedElements
+                    - (distanceToGoal(tile, newIndex) != 0 ? 1 : 0) + (distanceToGoal(tile, this.indexOfEmpty) != 0 ? 1 : 0);
+        }
+
+        return successor;
+    }
+
+    /**
+     *
+     * @return	The state as a 2d array
+     */
+    public int[][] getState () {
+        int[][] state = new int[n][n];
+        for (int k = 0; k < n * n; k++) {
+            state[k / n][k % n] = getTile(k);
+        }
+        return state;
+    }
+
+    /**
+     *
+     * @return The size of the side of the puzzle, n
+     */
+    public int getN () {
+        return n;
+    }
+
+    /**
+     *
+     * @return The cost of the path to this state
+     */
+    public int getCost () {
+        return cost;
+    }
+
+    /**
+     *
+     * @return The hashcode, which is the packed board mixed down to 32 bits, or the Zobrist hash for bigger boards
+     */
+    @Override
+    public int hashCode () {
+        if (tiles != null)
+            return (int) hash;
+
+        long h = board * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     *
+     * @return The array representation for output
+     */
+    @Override
+    public String toString () {
+        StringBuilder str = new StringBuilder();
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int tile = getTile(i * n + j);
+                if (tile == 0)
+                    str.append('-');
+                else
+                    str.append(tile);
+
+                if (j != n - 1)
+                    str.append('\t');
+
+            }
+            str.append('\n');
+        }
+
+        return str.toString();
+    }
+
+    /**
+     *
+     * @return The move of the empty case from the parent state to this one, see Board.MOVE_NAMES, -1 for a state not built by a move
+     */
+    public int getLastMove () {
+        return lastMove;
+    }
+
+    /**
+     *
+     * @param from    The index of the empty case before the move
+     * @param to      The index of the empty case after the move
+     * @return The move of the empty case between them, see Board.MOVE_NAMES
+     */
+    private static int moveBetween (int from, int to) {
+        int offset = to - from;
+        if (offset == -1)
+            return Board.LEFT;
+        if (offset == 1)
+            return Board.RIGHT;
+        return offset < 0 ? Board.UP : Board.DOWN;
+    }
+
+    /**
+     *
+     * @return The parent of state of this state instance, null if there is none or if it was detached
+     */
+    public State getParentState () {
+        return parentState;
+    }
+
+    /**
+     * Forgets the parent state, the last move is kept
+     * The searches keeping the moves in a VisitedTable call it once the heuristics are evaluated,
+     * so the states they queue don't keep every state expanded before them reachable
+     */
+    public void detach () {
+        parentState = null;
+    }
+
+    /**
+     *
+     * @param board    A packed board, see getBoard
+     * @param n        The size of the puzzle side, at most MAX_PACKED_SIZE
+     * @return The state of that board, without cost nor parent
+     */
+    public static State unpack (long board, int n) {
+        return new State(board, null, n, PackedBoard.indexOfEmpty(board, n), 0, null);
+    }
+
+    /**
+     * @param n The size of the state we want to get
+     * @return The perfect state, that is the state where you go from 1 to (n^2)-1 with the empty case on bottom right
+     */
+    public static State getPerfectGrid (int n) {
+        int[][] goal = new int[n][n];
+
+        // Perfect final tab (12345678-)
+        for (int i = 0; i < Math.pow(n, 2) - 1; i++) {
+            goal[i / n][i % n] = i + 1;
+        }
+        goal[n - 1][n - 1] = 0;
+
+        return new State(goal, n, 0, null);
+    }
+
+    /**
+     *
+     * @param n    The size of the state we want to get
+     * @return	A random state of that size
+     */
+    public static State getRandomGrid (int n) {
+        int[][] newState = new int[n][n];
+        Random rand = new Random();
+        ArrayList<Integer> values = new ArrayList<>();
+
+        // ArrayList of the possible values (012345678)
+        for (int i = 0; i < Math.pow(n, 2); i++) {
+            values.add(i);
+        }
+
+        // Loop to get a random 2d array of random values with no repetition
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int index = rand.nextInt(values.size());
+                //System.out.print("i: "+i+" - j: "+j+" - index: "+index+"\n");
+                int temp = values.get(index);
+                //System.out.print("i: "+i+" - j: "+j+" - temp: "+temp+"\n");
+                values.remove(index);
+                newState[i][j] = temp;
+            }
+        }
+
+        // We return a State with the new random State
+        return new State(newState, n, 0, null);
+    }
+
+    /**
+     * Heuristic method that represents the manhattan distance to the final solution,
+     * the empty case is not counted so the distance never overestimates the cost
+     *
+     * @return	The manhattan distance to the solution
+     */
+
+    public int getManhattanDistance(){
+        return manhattanDistance;
+    }
+
+    /**
+     * Heuristic that represents the number of tiles misplaced, the empty case is not counted
+     *
+     * @return	The number of tiles that are not in the correct position
+     */
+    public int getMisplacedElements(){
+        return misplacedElements;
+    }
+
+    /**
+     * Heuristic from the additive pattern database of the size of this state, computed on the first call only
+     *
+     * @return	The pattern database distance to the solution
+     */
+    public int getPatternDatabaseDistance(){
+        if (patternDatabaseDistance < 0) {
+            int[] where = new int[n * n];
+            int[] goalTiles = new int[n * n];
+            for (int k = 0; k < n * n; k++) {
+                where[getTile(k)] = k;
+                goalTiles[k] = goalState.getTile(k);
+            }
+            patternDatabaseDistance = PatternDatabase.forSize(n).distance(where, goalTiles);
+        }
+        return patternDatabaseDistance;
+    }
+
+    /**
+     * Heuristic of the manhattan distance plus 2 moves for each tile that must leave its goal line, see LinearConflict
+     * Computed on the first call, from the parent if it was computed there, only the lines crossed by the move changing
+     *
+     * @return	The linear conflict distance to the solution
+     */
+    public int getLinearConflictDistance(){
+        if (linearConflicts < 0) {
+            int[] buffer = new int[2 * n];
+            if (parentState != null && parentState.linearConflicts >= 0) {
+                // The tile moved from our empty case to the one of the parent
+                linearConflicts = parentState.linearConflicts
+                        - LinearConflict.moveConflicts(parentState, indexOfEmpty, parentState.indexOfEmpty, goalRows, goalColumns, buffer)
+                        + LinearConflict.moveConflicts(this, indexOfEmpty, parentState.indexOfEmpty, goalRows, goalColumns, buffer);
+            } else {
+                linearConflicts = LinearConflict.conflicts(this, goalRows, goalColumns, buffer);
+            }
+        }
+        return manhattanDistance + 2 * linearConflicts;
+    }
+
+    /**
+     * Heuristic of the walking distance, see WalkingDistance
+     * The row and column codes are computed on the first call, from the parent if it was computed there
+     *
+     * @return	The walking distance to the solution
+     */
+    public int getWalkingDistance(){
+        if (rowCode == 0) {
+            if (parentState != null && parentState.rowCode != 0) {
+                // The tile moved from our empty case to the one of the parent, it changes one count of one of the codes
+                int tile = getTile(parentState.indexOfEmpty);
+                int from = indexOfEmpty;
+                int to = parentState.indexOfEmpty;
+                rowCode = parentState.rowCode
+                        - WalkingDistance.shift(n, from / n, goalRows[tile]) + WalkingDistance.shift(n, to / n, goalRows[tile]);
+                columnCode = parentState.columnCode
+                        - WalkingDistance.shift(n, from % n, goalColumns[tile]) + WalkingDistance.shift(n, to % n, goalColumns[tile]);
+            } else {
+                rowCode = WalkingDistance.rowCode(this, goalRows);
+                columnCode = WalkingDistance.columnCode(this, goalColumns);
+            }
+        }
+        return WalkingDistance.forGoal(n, goalRows[0]).distance(rowCode)
+                + WalkingDistance.forGoal(n, goalColumns[0]).distance(columnCode);
+    }
+
+    /**
+     *
+     * @param tile     The tile we're looking
+     * @param index    The index where the tile stands
+     * @return The manhattan distance between that index and the position of the tile in the goalState
+     */
+    private int distanceToGoal (int tile, int index) {
+        return Math.abs(index / n - goalRows[tile]) + Math.abs(index % n - goalColumns[tile]);
+    }
+
+    /**
+     * The tables are built once and shared by every state of the search, we keep them in the goal itself
+     *
+     * @return The row and the column of each tile in this state, when used as a goal
+     */
+    private int[][] getTablesAsGoal () {
+        if (tablesAsGoal == null) {
+            int[] rows = new int[n * n];
+            int[] columns = new int[n * n];
+            for (int k = 0; k < n * n; k++) {
+                rows[getTile(k)] = k / n;
+                columns[getTile(k)] = k % n;
+            }
+            tablesAsGoal = new int[][]{rows, columns};
+        }
+        return tablesAsGoal;
+    }
+
+    /**
+     * Sets the goal and computes the heuristics from scratch, the successors then update them move by move
+     *
+     * @param goalState	The goalState we want to set
+     */
+    public void setGoalState (State goalState) {
+        this.goalState = goalState;
+        if (goalState == null)
+            return;
+
+        int[][] tables = goalState.getTablesAsGoal();
+        this.goalRows = tables[0];
+        this.goalColumns = tables[1];
+
+        // The lazy heuristics will be computed against this goal
+        patternDatabaseDistance = -1;
+        linearConflicts = -1;
+        rowCode = 0;
+        columnCode = 0;
+
+        manhattanDistance = 0;
+        misplacedElements = 0;
+        for (int k = 0; k < n * n; k++) {
+            int tile = getTile(k);
+            if (tile == 0)
+                continue;
+            int distance = distanceToGoal(tile, k);
+            manhattanDistance += distance;
+            if (distance != 0)
+                misplacedElements++;
+        }
+    }
+
+    /**
+     * A move swaps the empty case with a tile, so it changes the parity of the permutation and of the distance
+     * of the empty case to its goal position at the same time: both must have the same parity to reach the goal
+     *
+     * @return True if the goalState can be reached from this state, the goalState must be set
+     */
+    public boolean isSolvable () {
+        // We count the transpositions needed to sort the permutation from this board to the goal board
+        int[] goalIndexes = new int[n * n];
+        for (int k = 0; k < n * n; k++) {
+            goalIndexes[goalState.getTile(k)] = k;
+        }
+
+        int[] permutation = new int[n * n];
+        for (int k = 0; k < n * n; k++) {
+            permutation[k] = goalIndexes[getTile(k)];
+        }
+
+        int transpositions = 0;
+        boolean[] seen = new boolean[n * n];
+        for (int k = 0; k < n * n; k++) {
+            // Each cycle of length l needs l - 1 transpositions
+            int length = 0;
+            for (int j = k; !seen[j]; j = permutation[j]) {
+                seen[j] = true;
+                length++;
+            }
+            if (length > 0)
+                transpositions += length - 1;
+        }
+
+        int emptyDistance = Math.abs(indexOfEmpty / n - goalRows[0]) + Math.abs(indexOfEmpty % n - goalColumns[0]);
+        return transpositions % 2 == emptyDistance % 2;
+    }
+
+    /**
+     *
+     * @return	The goalState of this puzzle
+     */
+    public State getGoalState () {
+        return goalState;
+    }
+
+
+
+
+}
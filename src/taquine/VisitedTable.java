@@ -0,0 +1,191 @@
+package taquine;
+
+/**
+ * Class implementing a set of packed boards (see State.getBoard) in primitive arrays, with linear probing
+ * Optionally each board keeps the best cost found to reach it and the move that generated it,
+ * which takes 11 bytes per slot instead of a State, its arrays and a HashMap node per entry
+ */
+
+public class VisitedTable {
+    // A packed board always holds distinct tiles, so it is never 0: we use 0 for the empty slots
+    private static final long EMPTY = 0L;
+    private static final int NO_MOVE = -1;
+
+    private long[] keys;
+    private short[] costs;
+    private byte[] moves;
+    private final boolean withCosts;
+    private int size;
+    private int mask;
+
+    /**
+     * Main constructor for VisitedTable
+     *
+     * @param expectedSize    The number of boards we expect, the table grows beyond it
+     * @param withCosts       If we keep the cost and the move of each board
+     */
+    public VisitedTable (int expectedSize, boolean withCosts) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity *= 2;
+        }
+
+        this.withCosts = withCosts;
+        allocate(capacity);
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @return True if the board was added, false if it was already there
+     */
+    public boolean add (long board) {
+        int slot = find(board);
+        if (keys[slot] == board)
+            return false;
+
+        insert(slot, board);
+        return true;
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @return True if the board is in the table
+     */
+    public boolean contains (long board) {
+        return keys[find(board)] == board;
+    }
+
+    /**
+     * Adds the board, or updates it if that cost is lower than the one known, the table must keep the costs
+     *
+     * @param board    The packed board
+     * @param cost     The cost of the path to the board
+     * @param move     The move that generated the board, see Board.MOVE_NAMES, -1 for none
+     * @return True if the board was added or updated, false if it was already reached with a lower or equal cost
+     */
+    public boolean put (long board, int cost, int move) {
+        if (!withCosts)
+            throw new IllegalStateException("this table doesn't keep the costs");
+
+        int slot = find(board);
+        if (keys[slot] == board) {
+            if (costs[slot] <= cost)
+                return false;
+        } else {
+            slot = insert(slot, board);
+        }
+
+        costs[slot] = (short) cost;
+        moves[slot] = (byte) move;
+        return true;
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @return The best cost known to reach the board, -1 if it isn't in the table
+     */
+    public int getCost (long board) {
+        int slot = find(board);
+        return keys[slot] == board ? costs[slot] : -1;
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @return The move that generated the board with its best cost, -1 if none or if it isn't in the table
+     */
+    public int getMove (long board) {
+        int slot = find(board);
+        return keys[slot] == board ? moves[slot] : NO_MOVE;
+    }
+
+    /**
+     *
+     * @return The number of boards in the table
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @return The slot of the board, or the empty slot where it would be inserted
+     */
+    private int find (long board) {
+        if (board == EMPTY)
+            throw new IllegalArgumentException("invalid board " + board);
+
+        int slot = hash(board) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != board) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     *
+     * @param slot     The empty slot found for the board
+     * @param board    The packed board
+     * @return The slot where the board was inserted, it moves if the table had to grow
+     */
+    private int insert (int slot, long board) {
+        if (size + 1 > keys.length * 3 / 4) {
+            grow();
+            slot = find(board);
+        }
+
+        keys[slot] = board;
+        if (withCosts)
+            moves[slot] = NO_MOVE;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity and inserts back every board
+     */
+    private void grow () {
+        long[] oldKeys = keys;
+        short[] oldCosts = costs;
+        byte[] oldMoves = moves;
+
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY)
+                continue;
+            int slot = find(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            if (withCosts) {
+                costs[slot] = oldCosts[i];
+                moves[slot] = oldMoves[i];
+            }
+        }
+    }
+
+    /**
+     *
+     * @param capacity    The number of slots, a power of 2
+     */
+    private void allocate (int capacity) {
+        keys = new long[capacity];
+        if (withCosts) {
+            costs = new short[capacity];
+            moves = new byte[capacity];
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     *
+     * @param board    The packed board
+     * @return The hash of the board, the high bits of a multiplicative hash which depend on all the tiles
+     */
+    private static int hash (long board) {
+        return (int) ((board * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
@@ -0,0 +1,167 @@
+package taquine;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class implementing the walking distance heuristic
+ *
+ * Looking at the rows only, a board is summarized by how many tiles of each goal row stand in each row, and a
+ * vertical move takes a tile from a row next to the empty one into it. The number of such moves to reach the goal
+ * summary, found once by a breadth-first search, is a lower bound of the vertical moves. The same table, applied to
+ * the columns, bounds the horizontal moves, and both add up.
+ *
+ * A summary is coded in a long, 3 bits per (line, goal line) count, so the boards are limited to 4x4. A move
+ * changes a single count of the row or of the column code, the boards update them in constant time.
+ */
+
+public class WalkingDistance {
+    private static final int BITS_PER_COUNT = 3;
+    private static final long COUNT_MASK = 0x7L;
+
+    private static final ConcurrentHashMap<Integer, WalkingDistance> TABLES = new ConcurrentHashMap<>();
+
+    private final int n;
+    private final VisitedTable distances;
+
+    /**
+     * Builds the table by a breadth-first search from the goal summary
+     *
+     * @param n           The size of the puzzle side
+     * @param goalLine    The line of the empty case in the goal
+     */
+    private WalkingDistance (int n, int goalLine) {
+        this.n = n;
+        this.distances = new VisitedTable(1 << 12, true);
+
+        long goal = 0;
+        for (int line = 0; line < n; line++) {
+            goal += (line == goalLine ? n - 1 : n) * shift(n, line, line);
+        }
+
+        long[] layer = {goal};
+        distances.put(goal, 0, -1);
+        for (int depth = 1; layer.length > 0; depth++) {
+            long[] next = new long[16];
+            int size = 0;
+
+            for (long code : layer) {
+                int empty = emptyLine(code);
+                for (int line = empty - 1; line <= empty + 1; line += 2) {
+                    if (line < 0 || line >= n)
+                        continue;
+                    // A tile of each kind (goal line) present in the neighbour line can move into the empty one
+                    for (int kind = 0; kind < n; kind++) {
+                        if (count(code, line, kind) == 0)
+                            continue;
+                        long moved = code - shift(n, line, kind) + shift(n, empty, kind);
+                        if (distances.put(moved, depth, -1)) {
+                            if (size == next.length)
+                                next = Arrays.copyOf(next, size * 2);
+                            next[size++] = moved;
+                        }
+                    }
+                }
+            }
+
+            layer = Arrays.copyOf(next, size);
+        }
+    }
+
+    /**
+     * The tables are built once per size and line of the empty case of the goal, and shared by every search
+     *
+     * @param n           The size of the puzzle side
+     * @param goalLine    The row of the empty case in the goal for the row code, its column for the column code
+     * @return The walking distance table for that goal
+     * @throws IllegalArgumentException if the board is bigger than 4x4
+     */
+    public static WalkingDistance forGoal (int n, int goalLine) {
+        if (n > State.MAX_PACKED_SIZE)
+            throw new IllegalArgumentException("The walking distance only supports sizes up to " + State.MAX_PACKED_SIZE);
+        return TABLES.computeIfAbsent(n * State.MAX_PACKED_SIZE + goalLine, key -> new WalkingDistance(n, goalLine));
+    }
+
+    /**
+     *
+     * @param code    A row or column code, see rowCode and columnCode
+     * @return The minimum number of moves along that direction to reach the goal
+     */
+    public int distance (long code) {
+        return distances.getCost(code);
+    }
+
+    /**
+     *
+     * @param grid        The board
+     * @param goalRows    The row of each tile in the goal
+     * @return The code of the number of tiles of each goal row in each row
+     */
+    public static long rowCode (Grid grid, int[] goalRows) {
+        int n = grid.getN();
+        long code = 0;
+        for (int k = 0; k < n * n; k++) {
+            int tile = grid.getTile(k);
+            if (tile != 0)
+                code += shift(n, k / n, goalRows[tile]);
+        }
+        return code;
+    }
+
+    /**
+     *
+     * @param grid           The board
+     * @param goalColumns    The column of each tile in the goal
+     * @return The code of the number of tiles of each goal column in each column
+     */
+    public static long columnCode (Grid grid, int[] goalColumns) {
+        int n = grid.getN();
+        long code = 0;
+        for (int k = 0; k < n * n; k++) {
+            int tile = grid.getTile(k);
+            if (tile != 0)
+                code += shift(n, k % n, goalColumns[tile]);
+        }
+        return code;
+    }
+
+    /**
+     * A tile going from a line to another one removes this value of the first line and adds it to the second one
+     *
+     * @param n           The size of the puzzle side
+     * @param line        The line where the tile stands
+     * @param goalLine    The line of the tile in the goal
+     * @return The unit of the count of the tiles of that goal line in that line
+     */
+    public static long shift (int n, int line, int goalLine) {
+        return 1L << (BITS_PER_COUNT * (line * n + goalLine));
+    }
+
+    /**
+     *
+     * @param code        A row or column code
+     * @param line        The line
+     * @param goalLine    The goal line
+     * @return The number of tiles of that goal line in that line
+     */
+    private int count (long code, int line, int goalLine) {
+        return (int) ((code >>> (BITS_PER_COUNT * (line * n + goalLine))) & COUNT_MASK);
+    }
+
+    /**
+     *
+     * @param code    A row or column code
+     * @return The line of the empty case, the only one with n - 1 tiles
+     */
+    private int emptyLine (long code) {
+        for (int line = 0; line < n; line++) {
+            int tiles = 0;
+            for (int goalLine = 0; goalLine < n; goalLine++) {
+                tiles += count(code, line, goalLine);
+            }
+            if (tiles == n - 1)
+                return line;
+        }
+        throw new IllegalStateException("no empty line in " + code);
+    }
+}